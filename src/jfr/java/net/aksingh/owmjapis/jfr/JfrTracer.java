@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import net.aksingh.owmjapis.OWMMetrics;
+import net.aksingh.owmjapis.OWMTracer;
+
+/**
+ * <p>
+ * Records the phases of requests to OWM.org as events of Java Flight Recorder, so that
+ * latency spikes in a recording can be tied to endpoints, cities and phases. Events are
+ * only created while enabled in the recording, which they are by default.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>owm.setTracer(new JfrTracer());</code>
+ * </p>
+ * <p>
+ * It needs Java Flight Recorder's API, which comes with JDK 11 and later, and with JDK 8 from update 272.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.OpenWeatherMap#setTracer(OWMTracer)
+ * @since 2.5.0.6
+ */
+public class JfrTracer implements OWMTracer {
+
+    public Object requestStarted(OWMMetrics.Endpoint endpoint, String city) {
+        RequestEvent event = new RequestEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.endpoint = endpoint.getLabel();
+        event.city = city;
+        event.begin();
+        return event;
+    }
+
+    public void requestEnded(Object request, int responseCode, long wireBytes, long decompressedBytes, String outcome) {
+        if (request == null) {
+            return;
+        }
+        RequestEvent event = (RequestEvent) request;
+        event.end();
+        if (event.shouldCommit()) {
+            event.responseCode = responseCode;
+            event.wireBytes = wireBytes;
+            event.decompressedBytes = decompressedBytes;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    public void cacheLookedUp(OWMMetrics.Endpoint endpoint, String city, String cache, boolean hit) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint.getLabel();
+            event.city = city;
+            event.cache = cache;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    public void apiKeyAcquired(OWMMetrics.Endpoint endpoint, String city, long nanos) {
+        ApiKeyEvent event = new ApiKeyEvent();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint.getLabel();
+            event.city = city;
+            event.waited = nanos;
+            event.commit();
+        }
+    }
+
+    public void decompressed(OWMMetrics.Endpoint endpoint, String city, long wireBytes, long decompressedBytes, long nanos) {
+        DecompressionEvent event = new DecompressionEvent();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint.getLabel();
+            event.city = city;
+            event.wireBytes = wireBytes;
+            event.decompressedBytes = decompressedBytes;
+            event.decompressing = nanos;
+            event.commit();
+        }
+    }
+
+    public Object parseStarted(OWMMetrics.Endpoint endpoint, String city) {
+        ParseEvent event = new ParseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.endpoint = endpoint.getLabel();
+        event.city = city;
+        event.begin();
+        return event;
+    }
+
+    public void parseEnded(Object parse, int chars, boolean valid) {
+        if (parse == null) {
+            return;
+        }
+        ParseEvent event = (ParseEvent) parse;
+        event.end();
+        if (event.shouldCommit()) {
+            event.chars = chars;
+            event.valid = valid;
+            event.commit();
+        }
+    }
+
+    @Name("net.aksingh.owmjapis.Request")
+    @Label("OWM Request")
+    @Category("OWM JAPIs")
+    @Description("Request to OWM.org, from looking the host up to reading the response")
+    static class RequestEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("City")
+        String city;
+
+        @Label("Response Code")
+        int responseCode;
+
+        @Label("Wire Bytes")
+        @DataAmount
+        long wireBytes;
+
+        @Label("Decompressed Bytes")
+        @DataAmount
+        long decompressedBytes;
+
+        @Label("Outcome")
+        String outcome;
+    }
+
+    @Name("net.aksingh.owmjapis.CacheLookup")
+    @Label("OWM Cache Lookup")
+    @Category("OWM JAPIs")
+    @Description("Lookup of a cache of data from OWM.org")
+    static class CacheLookupEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("City")
+        String city;
+
+        @Label("Cache")
+        String cache;
+
+        @Label("Hit")
+        boolean hit;
+    }
+
+    @Name("net.aksingh.owmjapis.ApiKey")
+    @Label("OWM API Key Acquired")
+    @Category("OWM JAPIs")
+    @Description("Pick of a key from the pool of API keys")
+    static class ApiKeyEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("City")
+        String city;
+
+        @Label("Waited")
+        @Timespan
+        long waited;
+    }
+
+    @Name("net.aksingh.owmjapis.Decompression")
+    @Label("OWM Decompression")
+    @Category("OWM JAPIs")
+    @Description("Decompression of a response, which happens while it is read")
+    static class DecompressionEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("City")
+        String city;
+
+        @Label("Wire Bytes")
+        @DataAmount
+        long wireBytes;
+
+        @Label("Decompressed Bytes")
+        @DataAmount
+        long decompressedBytes;
+
+        @Label("Decompressing")
+        @Timespan
+        long decompressing;
+    }
+
+    @Name("net.aksingh.owmjapis.Parse")
+    @Label("OWM Parse")
+    @Category("OWM JAPIs")
+    @Description("Parsing of a response")
+    static class ParseEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("City")
+        String city;
+
+        @Label("Characters")
+        int chars;
+
+        @Label("Valid")
+        boolean valid;
+    }
+}
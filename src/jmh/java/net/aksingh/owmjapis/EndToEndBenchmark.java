@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Benchmarks requests end to end, through the whole of <code>httpGET</code> and parsing,
+ * against the local stand-in for OWM.org. Throughput gives requests per second, and
+ * sample time gives the percentiles of latency. The stand-in's latency is added to every
+ * request, so with it set, the numbers tell how the client copes with a slow server.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class EndToEndBenchmark {
+    @Param({"IDENTITY", "GZIP"})
+    String encoding;
+
+    @Param({"0", "20"})
+    long latency;
+
+    private OWMStandInServer server;
+    private OpenWeatherMap owm;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        server = OWMStandInServer.start()
+                .withEncoding(OWMStandInServer.Encoding.valueOf(encoding))
+                .withLatency(latency, latency / 2);
+        owm = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "0123456789abcdef");
+        owm.setBaseUrl(server.getBaseUrl());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        server.stop();
+    }
+
+    @Benchmark
+    public CurrentWeather currentWeather() {
+        return owm.currentWeatherByCityCode(2643743L);
+    }
+
+    @Benchmark
+    public HourlyForecast hourlyForecast() {
+        return owm.hourlyForecastByCityCode(2643743L);
+    }
+
+    @Benchmark
+    public DailyForecast dailyForecast() {
+        return owm.dailyForecastByCityCode(2643743L, (byte) 7);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Benchmarks building of addresses by {@link net.aksingh.owmjapis.OpenWeatherMap.OWMAddress}
+ * against building them from scratch for every call, as was done before 2.5.0.6.
+ * Run with the GC profiler (<code>-prof gc</code>) to compare allocation per call.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OWMAddressBenchmark {
+    private static final String URL_API = "http://api.openweathermap.org/data/2.5/";
+    private static final String URL_CURRENT = "weather?";
+    private static final String URL_DAILY_FORECAST = "forecast/daily?";
+
+    private final OpenWeatherMap owm =
+            new OpenWeatherMap(OpenWeatherMap.Units.METRIC, OpenWeatherMap.Language.ENGLISH, "0123456789abcdef");
+    private final OpenWeatherMap.OWMAddress owmAddress = owm.getOwmAddressInstance();
+
+    private final String mode = owm.getMode();
+    private final OpenWeatherMap.Units units = owm.getUnits();
+    private final OpenWeatherMap.Language lang = owm.getLang();
+    private final String appId = owm.getApiKey();
+
+    private final long cityCode = 2643743L;
+    private final String cityName = "London";
+    private final float latitude = 51.51f;
+    private final float longitude = -0.13f;
+    private final byte count = 7;
+
+    @Benchmark
+    public String currentWeatherByCityCode() {
+        return owmAddress.currentWeatherByCityCode(cityCode);
+    }
+
+    @Benchmark
+    public String currentWeatherByCityCodeFromScratch() {
+        return new StringBuilder()
+                .append(URL_API).append(URL_CURRENT)
+                .append("id=").append(Long.toString(cityCode)).append("&")
+                .append("mode=").append(mode).append("&")
+                .append("units=").append(units).append("&")
+                .append("lang=").append(lang).append("&")
+                .append("appId=").append(appId)
+                .toString();
+    }
+
+    @Benchmark
+    public String currentWeatherByCityName() throws UnsupportedEncodingException {
+        return owmAddress.currentWeatherByCityName(cityName);
+    }
+
+    @Benchmark
+    public String currentWeatherByCityNameFromScratch() throws UnsupportedEncodingException {
+        return new StringBuilder()
+                .append(URL_API).append(URL_CURRENT)
+                .append("q=").append(URLEncoder.encode(cityName, "UTF-8")).append("&")
+                .append("mode=").append(mode).append("&")
+                .append("units=").append(units).append("&")
+                .append("lang=").append(lang).append("&")
+                .append("appId=").append(appId)
+                .toString();
+    }
+
+    @Benchmark
+    public String dailyForecastByCoordinates() {
+        return owmAddress.dailyForecastByCoordinates(latitude, longitude, count);
+    }
+
+    @Benchmark
+    public String dailyForecastByCoordinatesFromScratch() {
+        return new StringBuilder()
+                .append(URL_API).append(URL_DAILY_FORECAST)
+                .append("lat=").append(Float.toString(latitude)).append("&")
+                .append("lon=").append(Float.toString(longitude)).append("&")
+                .append("cnt=").append(Byte.toString(count)).append("&")
+                .append("mode=").append(mode).append("&")
+                .append("units=").append(units).append("&")
+                .append("lang=").append(lang).append("&")
+                .append("appId=").append(appId)
+                .toString();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Benchmarks parsing of responses from OWM.org, over a corpus of payloads of different
+ * sizes in <code>src/test/resources</code>: whole parsing by the <code>*FromRawResponse</code>
+ * methods, building of the data from an already parsed <code>JSONObject</code>, and getting
+ * the raw response back, and parsing of a mix of generated responses which all differ.
+ * Run with the GC profiler (<code>-prof gc</code>) for allocation rates.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+    private static final OpenWeatherMap OWM = new OpenWeatherMap("");
+
+    @Benchmark
+    public CurrentWeather currentWeatherFromRawResponse(CurrentPayload payload) {
+        return OWM.currentWeatherFromRawResponse(payload.response);
+    }
+
+    @Benchmark
+    public CurrentWeather currentWeatherFromJson(CurrentPayload payload) {
+        return new CurrentWeather(payload.json);
+    }
+
+    @Benchmark
+    public HourlyForecast hourlyForecastFromRawResponse(HourlyPayload payload) {
+        return OWM.hourlyForecastFromRawResponse(payload.response);
+    }
+
+    @Benchmark
+    public HourlyForecast hourlyForecastFromJson(HourlyPayload payload) {
+        return new HourlyForecast(payload.json);
+    }
+
+    @Benchmark
+    public DailyForecast dailyForecastFromRawResponse(DailyPayload payload) {
+        return OWM.dailyForecastFromRawResponse(payload.response);
+    }
+
+    @Benchmark
+    public DailyForecast dailyForecastFromJson(DailyPayload payload) {
+        return new DailyForecast(payload.json);
+    }
+
+    @Benchmark
+    public String getRawResponse(DailyPayload payload) {
+        return payload.parsed.getRawResponse();
+    }
+
+    @Benchmark
+    public AbstractResponse generatedFromRawResponse(GeneratedPayloads payloads) {
+        int i = payloads.next++ & (GeneratedPayloads.COUNT - 1);
+        switch (payloads.endpoints[i]) {
+            case HOURLY_FORECAST:
+                return OWM.hourlyForecastFromRawResponse(payloads.responses[i]);
+            case DAILY_FORECAST:
+                return OWM.dailyForecastFromRawResponse(payloads.responses[i]);
+            default:
+                return OWM.currentWeatherFromRawResponse(payloads.responses[i]);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CurrentPayload {
+        @Param({"current-clear", "current-storm"})
+        String name;
+
+        String response;
+        JSONObject json;
+
+        @Setup
+        public void load() throws IOException {
+            response = OWMStandInServer.payload(name);
+            json = new JSONObject(response);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HourlyPayload {
+        @Param({"hourly-8", "hourly-40"})
+        String name;
+
+        String response;
+        JSONObject json;
+
+        @Setup
+        public void load() throws IOException {
+            response = OWMStandInServer.payload(name);
+            json = new JSONObject(response);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DailyPayload {
+        @Param({"daily-1", "daily-7", "daily-16"})
+        String name;
+
+        String response;
+        JSONObject json;
+        DailyForecast parsed;
+
+        @Setup
+        public void load() throws IOException {
+            response = OWMStandInServer.payload(name);
+            json = new JSONObject(response);
+            parsed = new DailyForecast(json);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class GeneratedPayloads {
+        static final int COUNT = 4096;
+
+        @Param({"0.05"})
+        double missingRate;
+
+        final OWMMetrics.Endpoint[] endpoints = new OWMMetrics.Endpoint[COUNT];
+        final String[] responses = new String[COUNT];
+        int next;
+
+        @Setup
+        public void generate() {
+            OWMPayloadGenerator generator = new OWMPayloadGenerator(42L).withMissingRate(missingRate);
+            OWMMetrics.Endpoint[] all = OWMMetrics.Endpoint.values();
+            for (int i = 0; i < COUNT; i++) {
+                endpoints[i] = all[i % all.length];
+                responses[i] = generator.next(endpoints[i]);
+            }
+        }
+    }
+}
@@ -76,6 +76,14 @@ public abstract class AbstractForecast extends AbstractResponse {
         this.forecastCount = (jsonObj != null) ? jsonObj.optInt(JSON_FORECAST_COUNT, 0) : 0;
     }
 
+    AbstractForecast(AbstractForecast source, int forecastCount) {
+        super(source);
+
+        this.message = source.message;
+        this.city = source.city;
+        this.forecastCount = forecastCount;
+    }
+
     /**
      * @return <code>true</code> if message is available, otherwise <code>false</code>.
      */
@@ -46,6 +46,7 @@ abstract class AbstractResponse implements Serializable {
      */
     private final int responseCode;
     private final String rawResponse;
+    private Provenance provenance;
 
     /*
     Constructors
@@ -60,6 +61,58 @@ abstract class AbstractResponse implements Serializable {
         this.responseCode = (jsonObj != null) ? jsonObj.optInt(JSON_RESPONSE_CODE, Integer.MIN_VALUE) : Integer.MIN_VALUE;
     }
 
+    AbstractResponse(AbstractResponse source) {
+        this.rawResponse = source.rawResponse;
+        this.responseCode = source.responseCode;
+        this.provenance = source.provenance;
+    }
+
+    /**
+     * Finds the response code in a raw response without parsing it, which is quick enough
+     * to reject failed responses before building any data from them.
+     *
+     * @param rawResponse Raw response from OWM.org
+     * @return Response code if found, otherwise <code>Integer.MIN_VALUE</code>.
+     */
+    static int scanResponseCode(String rawResponse) {
+        String key = "\"" + JSON_RESPONSE_CODE + "\"";
+        int length = rawResponse.length();
+
+        for (int at = rawResponse.indexOf(key); at >= 0; at = rawResponse.indexOf(key, at + 1)) {
+            int i = skipWhitespace(rawResponse, at + key.length());
+            if (i == length || rawResponse.charAt(i) != ':') {
+                continue; // a value, not the key
+            }
+            i = skipWhitespace(rawResponse, i + 1);
+            if (i < length && rawResponse.charAt(i) == '"') {
+                i++;
+            }
+
+            int code = 0;
+            int digits = 0;
+            for (; i < length && digits < 9; i++, digits++) {
+                char c = rawResponse.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                code = code * 10 + (c - '0');
+            }
+            return (digits > 0) ? code : Integer.MIN_VALUE;
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    private static int skipWhitespace(String text, int index) {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    void setProvenance(Provenance provenance) {
+        this.provenance = provenance;
+    }
+
     /**
      * @return <code>true</code> if response is valid (downloaded and parsed correctly), otherwise <code>false</code>.
      */
@@ -81,6 +134,14 @@ abstract class AbstractResponse implements Serializable {
         return this.rawResponse != null;
     }
 
+    /**
+     * @return <code>true</code> if provenance is available, otherwise <code>false</code>.
+     * @see net.aksingh.owmjapis.OpenWeatherMap#setProvenance(boolean)
+     */
+    public boolean hasProvenance() {
+        return this.provenance != null;
+    }
+
     /**
      * @return Response code if available, otherwise <code>Integer.MIN_VALUE</code>.
      */
@@ -94,4 +155,11 @@ abstract class AbstractResponse implements Serializable {
     public String getRawResponse() {
         return this.rawResponse;
     }
+
+    /**
+     * @return Provenance if available, otherwise <code>null</code>.
+     */
+    public Provenance getProvenance() {
+        return this.provenance;
+    }
 }
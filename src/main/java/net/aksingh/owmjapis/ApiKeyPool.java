@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Pool of API keys from OWM.org, so that requests can be spread over several accounts.
+ * Each key has its own budget of requests per minute, and every request uses the
+ * least-loaded key, i.e., the one that has used the smallest share of its budget in the
+ * current minute. Keys rejected by OWM.org as unauthorized (401) or rate limited (429)
+ * are left out for a while.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>ApiKeyPool pool = new ApiKeyPool();</code><br>
+ * <code>pool.addApiKey("first-api-key", 60);</code><br>
+ * <code>pool.addApiKey("second-api-key", 600);</code><br>
+ * <code>owm.setApiKeyPool(pool);</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/18
+ * @see net.aksingh.owmjapis.OpenWeatherMap#setApiKeyPool(ApiKeyPool)
+ * @since 2.5.0.6
+ */
+public class ApiKeyPool {
+    private static final long WINDOW = 60 * 1000L;
+    private static final long RATE_LIMITED_SUSPENSION = 60 * 1000L;
+    private static final long UNAUTHORIZED_SUSPENSION = 10 * 60 * 1000L;
+
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final long rateLimitedSuspension;
+    private final long unauthorizedSuspension;
+    private final List<Key> keys;
+
+    /**
+     * Constructor. Rate limited keys are left out for a minute, unauthorized ones for 10 minutes.
+     */
+    public ApiKeyPool() {
+        this(RATE_LIMITED_SUSPENSION, UNAUTHORIZED_SUSPENSION);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param rateLimitedSuspension  Time (in milliseconds) for which a rate limited key is left out
+     * @param unauthorizedSuspension Time (in milliseconds) for which an unauthorized key is left out
+     */
+    public ApiKeyPool(long rateLimitedSuspension, long unauthorizedSuspension) {
+        this.rateLimitedSuspension = rateLimitedSuspension;
+        this.unauthorizedSuspension = unauthorizedSuspension;
+        this.keys = new CopyOnWriteArrayList<Key>();
+    }
+
+    /**
+     * Adds an API key to the pool.
+     *
+     * @param apiKey            API key from OWM.org
+     * @param requestsPerMinute Budget of requests per minute for the key
+     * @return This pool
+     * @throws IllegalArgumentException API key should not be empty, and budget should be more than 0.
+     */
+    public ApiKeyPool addApiKey(String apiKey, int requestsPerMinute)
+            throws IllegalArgumentException {
+        if (apiKey == null || apiKey.length() == 0) {
+            throw new IllegalArgumentException("API key cannot be null or empty.");
+        }
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("Requests per minute cannot be less than 1.");
+        }
+        keys.add(new Key(apiKey, requestsPerMinute));
+        return this;
+    }
+
+    /**
+     * Picks the key for a request, and counts the request against its budget.
+     * When every key is over budget, the least-loaded one is picked all the same;
+     * when every key is left out, the one to come back first is picked.
+     *
+     * @return API key, or <code>null</code> if the pool is empty.
+     */
+    public String acquire() {
+        long now = System.currentTimeMillis();
+
+        Key leastLoaded = null;
+        double leastLoad = Double.MAX_VALUE;
+        Key soonestBack = null;
+
+        for (Key key : keys) {
+            if (key.isSuspended(now)) {
+                if (soonestBack == null || key.suspendedUntil < soonestBack.suspendedUntil) {
+                    soonestBack = key;
+                }
+            } else {
+                double load = key.load(now);
+                if (load < leastLoad) {
+                    leastLoad = load;
+                    leastLoaded = key;
+                }
+            }
+        }
+
+        Key picked = (leastLoaded != null) ? leastLoaded : soonestBack;
+        if (picked == null) {
+            return null;
+        }
+        picked.count(now);
+        return picked.apiKey;
+    }
+
+    /**
+     * @return <code>true</code> if some key of the pool is not left out at the moment.
+     */
+    boolean hasUsableKey() {
+        long now = System.currentTimeMillis();
+        for (Key key : keys) {
+            if (!key.isSuspended(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reports the response code which OWM.org gave for a request made with a key of this pool.
+     *
+     * @param apiKey       API key used for the request
+     * @param responseCode HTTP response code of the request
+     */
+    public void report(String apiKey, int responseCode) {
+        Key key = find(apiKey);
+        if (key == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (responseCode == HTTP_UNAUTHORIZED) {
+            key.unauthorized.incrementAndGet();
+            key.suspendedUntil = now + unauthorizedSuspension;
+        } else if (responseCode == HTTP_TOO_MANY_REQUESTS) {
+            key.rateLimited.incrementAndGet();
+            key.suspendedUntil = now + rateLimitedSuspension;
+        } else if (responseCode >= 400) {
+            key.failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Usage of every key in the pool, in the order they were added.
+     */
+    public List<Usage> getUsage() {
+        long now = System.currentTimeMillis();
+
+        List<Usage> usage = new ArrayList<Usage>(keys.size());
+        for (Key key : keys) {
+            usage.add(new Usage(key, now));
+        }
+        return usage;
+    }
+
+    private Key find(String apiKey) {
+        for (Key key : keys) {
+            if (key.apiKey.equals(apiKey)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An API key, with its budget and counters.
+     */
+    private static class Key {
+        private final String apiKey;
+        private final int requestsPerMinute;
+
+        private final AtomicLong windowStart = new AtomicLong();
+        private final AtomicInteger requestsInWindow = new AtomicInteger();
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong unauthorized = new AtomicLong();
+        private final AtomicLong rateLimited = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile long suspendedUntil = Long.MIN_VALUE;
+
+        private Key(String apiKey, int requestsPerMinute) {
+            this.apiKey = apiKey;
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        private boolean isSuspended(long now) {
+            return suspendedUntil > now;
+        }
+
+        private double load(long now) {
+            return (double) requestsInWindow(now) / requestsPerMinute;
+        }
+
+        private int requestsInWindow(long now) {
+            long start = windowStart.get();
+            if (now - start >= WINDOW && windowStart.compareAndSet(start, now)) {
+                requestsInWindow.set(0);
+            }
+            return requestsInWindow.get();
+        }
+
+        private void count(long now) {
+            requestsInWindow(now);
+            requestsInWindow.incrementAndGet();
+            requests.incrementAndGet();
+        }
+    }
+
+    /**
+     * <p>
+     * Usage of a key in the pool, as it was when asked for.
+     * </p>
+     */
+    public static class Usage {
+        private final String apiKey;
+        private final int requestsPerMinute;
+        private final int requestsInLastMinute;
+        private final long requests;
+        private final long unauthorized;
+        private final long rateLimited;
+        private final long failed;
+        private final boolean suspended;
+
+        private Usage(Key key, long now) {
+            this.apiKey = key.apiKey;
+            this.requestsPerMinute = key.requestsPerMinute;
+            this.requestsInLastMinute = key.requestsInWindow(now);
+            this.requests = key.requests.get();
+            this.unauthorized = key.unauthorized.get();
+            this.rateLimited = key.rateLimited.get();
+            this.failed = key.failed.get();
+            this.suspended = key.isSuspended(now);
+        }
+
+        public String getApiKey() {
+            return this.apiKey;
+        }
+
+        /**
+         * @return Budget of requests per minute.
+         */
+        public int getRequestsPerMinute() {
+            return this.requestsPerMinute;
+        }
+
+        /**
+         * @return Requests made in the current minute.
+         */
+        public int getRequestsInLastMinute() {
+            return this.requestsInLastMinute;
+        }
+
+        /**
+         * @return Requests made in total.
+         */
+        public long getRequests() {
+            return this.requests;
+        }
+
+        /**
+         * @return Requests rejected as unauthorized (401).
+         */
+        public long getUnauthorizedCount() {
+            return this.unauthorized;
+        }
+
+        /**
+         * @return Requests rejected as rate limited (429).
+         */
+        public long getRateLimitedCount() {
+            return this.rateLimited;
+        }
+
+        /**
+         * @return Requests failed for any other reason reported by OWM.org.
+         */
+        public long getFailedCount() {
+            return this.failed;
+        }
+
+        /**
+         * @return <code>true</code> if the key is left out for now, otherwise <code>false</code>.
+         */
+        public boolean isSuspended() {
+            return this.suspended;
+        }
+    }
+}
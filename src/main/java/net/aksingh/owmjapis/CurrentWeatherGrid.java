@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Interpolates a metric of the current weather of many cities onto a regular grid of
+ * latitudes and longitudes, by inverse-distance weighting of the cities within a radius
+ * of every point of the grid.
+ * </p>
+ * <p>
+ * Cities are kept in a spatial index of buckets, so that only the ones near a point are
+ * weighed for it. The grid is split into tiles, which are computed in parallel; when cities
+ * are put in or removed, only the tiles within their radius are computed again on the next
+ * {@link #update()}. Points with no city within the radius are <code>NaN</code>.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>CurrentWeatherGrid grid = new CurrentWeatherGrid(35f, -10f, 70f, 40f, 350, 500, CurrentWeatherGrid.TEMPERATURE);</code><br>
+ * <code>grid.putAll(currentWeathers);</code><br>
+ * <code>grid.update();</code><br>
+ * <code>float temperature = grid.getValue(row, column);</code>
+ * </p>
+ * <p>
+ * Putting, removing and updating are synchronized with each other; values read while an
+ * update is running may be from before or after it.
+ * </p>
+ * <p>
+ * Longitudes are not wrapped across the antimeridian (&plusmn;180&deg;): a grid must run from
+ * west to east without crossing it, and cities just across it from the grid are not weighed
+ * for the points near it.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/18
+ * @since 2.5.0.6
+ */
+public class CurrentWeatherGrid {
+    private static final double KM_PER_DEGREE = 111.2;
+    private static final int TILE_SIZE = 32;
+
+    private static final ExecutorService TILES = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "owm-grid");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Temperature
+     */
+    public static final Metric TEMPERATURE = new Metric() {
+        public double valueOf(CurrentWeather weather) {
+            return weather.hasMainInstance() ? weather.getMainInstance().getTemperature() : Double.NaN;
+        }
+    };
+
+    /**
+     * Humidity (in percentage)
+     */
+    public static final Metric HUMIDITY = new Metric() {
+        public double valueOf(CurrentWeather weather) {
+            return weather.hasMainInstance() ? weather.getMainInstance().getHumidity() : Double.NaN;
+        }
+    };
+
+    /**
+     * Pressure
+     */
+    public static final Metric PRESSURE = new Metric() {
+        public double valueOf(CurrentWeather weather) {
+            return weather.hasMainInstance() ? weather.getMainInstance().getPressure() : Double.NaN;
+        }
+    };
+
+    /**
+     * Wind speed
+     */
+    public static final Metric WIND_SPEED = new Metric() {
+        public double valueOf(CurrentWeather weather) {
+            return weather.hasWindInstance() ? weather.getWindInstance().getWindSpeed() : Double.NaN;
+        }
+    };
+
+    /**
+     * Clouds (in percentage)
+     */
+    public static final Metric CLOUDS = new Metric() {
+        public double valueOf(CurrentWeather weather) {
+            return weather.hasCloudsInstance() ? weather.getCloudsInstance().getPercentageOfClouds() : Double.NaN;
+        }
+    };
+
+    private final double south;
+    private final double west;
+    private final double latStep;
+    private final double lonStep;
+    private final int rows;
+    private final int columns;
+    private final Metric metric;
+
+    private double power = 2;
+    private double radius = 500;
+    private double radiusDegrees = radius / KM_PER_DEGREE;
+    private ExecutorService executor = TILES;
+
+    private final float[] values;
+    private final int tileRows;
+    private final int tileColumns;
+    private final boolean[] dirty;
+    private int dirtyCount;
+
+    private final Map<Long, City> cities = new HashMap<Long, City>();
+    private Buckets buckets;
+
+    /**
+     * @param south   Latitude of the first row
+     * @param west    Longitude of the first column
+     * @param north   Latitude of the last row
+     * @param east    Longitude of the last column, more than <code>west</code>, as the grid
+     *                cannot cross the antimeridian
+     * @param rows    Count of rows, at least 2
+     * @param columns Count of columns, at least 2
+     * @param metric  Metric to interpolate
+     */
+    public CurrentWeatherGrid(float south, float west, float north, float east, int rows, int columns, Metric metric) {
+        if (rows < 2 || columns < 2 || north <= south || east <= west) {
+            throw new IllegalArgumentException("Grid must have at least 2 rows and columns, from south-west to north-east.");
+        }
+        this.south = south;
+        this.west = west;
+        this.latStep = (north - (double) south) / (rows - 1);
+        this.lonStep = (east - (double) west) / (columns - 1);
+        this.rows = rows;
+        this.columns = columns;
+        this.metric = metric;
+
+        this.values = new float[rows * columns];
+        this.tileRows = (rows + TILE_SIZE - 1) / TILE_SIZE;
+        this.tileColumns = (columns + TILE_SIZE - 1) / TILE_SIZE;
+        this.dirty = new boolean[tileRows * tileColumns];
+        this.buckets = new Buckets();
+        markAllDirty();
+    }
+
+    /**
+     * @param power Power of the distance to weigh cities by, 2 by default
+     * @return This grid.
+     */
+    public synchronized CurrentWeatherGrid withPower(double power) {
+        if (power <= 0) {
+            throw new IllegalArgumentException("Power must be positive.");
+        }
+        if (power != this.power) {
+            this.power = power;
+            markAllDirty();
+        }
+        return this;
+    }
+
+    /**
+     * @param radius Distance (in kilometres) within which cities are weighed for a point, 500 by default
+     * @return This grid.
+     */
+    public synchronized CurrentWeatherGrid withRadius(double radius) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Radius must be positive.");
+        }
+        this.radius = radius;
+        this.radiusDegrees = radius / KM_PER_DEGREE;
+        Buckets buckets = new Buckets();
+        for (City city : cities.values()) {
+            buckets.add(city);
+        }
+        this.buckets = buckets;
+        markAllDirty();
+        return this;
+    }
+
+    /**
+     * @param executor Executor for computing tiles; by default, a shared pool of daemon threads
+     * @return This grid.
+     */
+    public synchronized CurrentWeatherGrid withExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Puts in, or replaces, the weather of the city, by its code. The weather of a city without
+     * coordinates, or without the metric, takes it out.
+     *
+     * @param weather Current weather of a city
+     */
+    public synchronized void put(CurrentWeather weather) {
+        long cityCode = weather.getCityCode();
+        double value = metric.valueOf(weather);
+        boolean placed = weather.hasCoordInstance() && weather.getCoordInstance().hasLatitude()
+                && weather.getCoordInstance().hasLongitude() && !Double.isNaN(value);
+        if (!placed) {
+            remove(cityCode);
+            return;
+        }
+
+        double lat = weather.getCoordInstance().getLatitude();
+        double lon = weather.getCoordInstance().getLongitude();
+        City city = cities.get(cityCode);
+        if (city != null) {
+            if (city.lat == lat && city.lon == lon && city.value == value) {
+                return;
+            }
+            buckets.remove(city);
+            markDirty(city.lat, city.lon);
+        }
+
+        city = new City(lat, lon, value);
+        cities.put(cityCode, city);
+        buckets.add(city);
+        markDirty(lat, lon);
+    }
+
+    /**
+     * @param weathers Current weather of cities
+     * @see #put(CurrentWeather)
+     */
+    public synchronized void putAll(Collection<CurrentWeather> weathers) {
+        for (CurrentWeather weather : weathers) {
+            put(weather);
+        }
+    }
+
+    /**
+     * @param cityCode Code of the city to take out
+     */
+    public synchronized void remove(long cityCode) {
+        City city = cities.remove(cityCode);
+        if (city != null) {
+            buckets.remove(city);
+            markDirty(city.lat, city.lon);
+        }
+    }
+
+    /**
+     * Computes again the tiles changed since the last update, in parallel.
+     *
+     * @return Count of tiles computed.
+     */
+    public synchronized int update() {
+        final int[] tiles = new int[dirtyCount];
+        for (int t = 0, i = 0; t < dirty.length; t++) {
+            if (dirty[t]) {
+                tiles[i++] = t;
+                dirty[t] = false;
+            }
+        }
+        dirtyCount = 0;
+
+        final AtomicInteger next = new AtomicInteger();
+        final Buckets buckets = this.buckets;
+
+        // the calling thread works too, so the update completes even if the executor is busy
+        int workers = Math.min(tiles.length, Runtime.getRuntime().availableProcessors());
+        final CountDownLatch done = new CountDownLatch(Math.max(workers - 1, 0));
+        for (int i = 1; i < workers; i++) {
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            computeTiles(tiles, next, buckets);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                done.countDown();
+            }
+        }
+        computeTiles(tiles, next, buckets);
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return tiles.length;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * @return Count of cities in the grid.
+     */
+    public synchronized int getCityCount() {
+        return this.cities.size();
+    }
+
+    public float getLatitude(int row) {
+        return (float) (south + row * latStep);
+    }
+
+    public float getLongitude(int column) {
+        return (float) (west + column * lonStep);
+    }
+
+    /**
+     * @return Value of the metric at the point if available, otherwise <code>NaN</code>.
+     */
+    public float getValue(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Column: " + column);
+        }
+        return values[row * columns + column];
+    }
+
+    /**
+     * @param out Array to copy the values into, row by row from the south-west; at least rows times columns long
+     */
+    public void getValues(float[] out) {
+        System.arraycopy(values, 0, out, 0, values.length);
+    }
+
+    private void computeTiles(int[] tiles, AtomicInteger next, Buckets buckets) {
+        for (int i = next.getAndIncrement(); i < tiles.length; i = next.getAndIncrement()) {
+            computeTile(tiles[i], buckets);
+        }
+    }
+
+    private void computeTile(int tile, Buckets buckets) {
+        int firstRow = (tile / tileColumns) * TILE_SIZE;
+        int firstColumn = (tile % tileColumns) * TILE_SIZE;
+        int lastRow = Math.min(firstRow + TILE_SIZE, rows);
+        int lastColumn = Math.min(firstColumn + TILE_SIZE, columns);
+
+        for (int row = firstRow; row < lastRow; row++) {
+            double lat = south + row * latStep;
+            for (int column = firstColumn; column < lastColumn; column++) {
+                values[row * columns + column] = (float) interpolate(lat, west + column * lonStep, buckets);
+            }
+        }
+    }
+
+    private double interpolate(double lat, double lon, Buckets buckets) {
+        double cos = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double lonDegrees = Math.min(radiusDegrees / cos, 180);
+        int fromRow = buckets.row(lat - radiusDegrees);
+        int toRow = buckets.row(lat + radiusDegrees);
+        int fromColumn = buckets.column(lon - lonDegrees);
+        int toColumn = buckets.column(lon + lonDegrees);
+
+        double weights = 0;
+        double weighted = 0;
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromColumn; c <= toColumn; c++) {
+                List<City> bucket = buckets.get(r, c);
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0, size = bucket.size(); i < size; i++) {
+                    City city = bucket.get(i);
+                    double dy = (city.lat - lat) * KM_PER_DEGREE;
+                    double dx = (city.lon - lon) * KM_PER_DEGREE * cos;
+                    double distance = Math.sqrt(dx * dx + dy * dy);
+                    if (distance >= radius) {
+                        continue;
+                    }
+                    if (distance < 1e-3) {
+                        return city.value;
+                    }
+                    double weight = (power == 2) ? 1 / (distance * distance) : 1 / Math.pow(distance, power);
+                    weights += weight;
+                    weighted += weight * city.value;
+                }
+            }
+        }
+        return (weights > 0) ? weighted / weights : Double.NaN;
+    }
+
+    private void markDirty(double lat, double lon) {
+        double north = Math.min(lat + radiusDegrees, 90);
+        double southmost = Math.max(lat - radiusDegrees, -90);
+        double cos = Math.max(Math.cos(Math.toRadians(Math.max(Math.abs(north), Math.abs(southmost)))), 0.01);
+        double lonDegrees = radiusDegrees / cos;
+
+        int fromRow = clamp((int) Math.floor((southmost - south) / latStep), rows - 1) / TILE_SIZE;
+        int toRow = clamp((int) Math.ceil((north - south) / latStep), rows - 1) / TILE_SIZE;
+        if (north < south || southmost > south + (rows - 1) * latStep) {
+            return;
+        }
+        int fromColumn;
+        int toColumn;
+        if (lonDegrees >= 180) {
+            fromColumn = 0;
+            toColumn = tileColumns - 1;
+        } else {
+            if (lon + lonDegrees < west || lon - lonDegrees > west + (columns - 1) * lonStep) {
+                return;
+            }
+            fromColumn = clamp((int) Math.floor((lon - lonDegrees - west) / lonStep), columns - 1) / TILE_SIZE;
+            toColumn = clamp((int) Math.ceil((lon + lonDegrees - west) / lonStep), columns - 1) / TILE_SIZE;
+        }
+
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromColumn; c <= toColumn; c++) {
+                int tile = r * tileColumns + c;
+                if (!dirty[tile]) {
+                    dirty[tile] = true;
+                    dirtyCount++;
+                }
+            }
+        }
+    }
+
+    private void markAllDirty() {
+        for (int t = 0; t < dirty.length; t++) {
+            dirty[t] = true;
+        }
+        dirtyCount = dirty.length;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * <p>
+     * A value of the current weather of a city to be interpolated.
+     * </p>
+     */
+    public interface Metric {
+        /**
+         * @param weather Current weather of a city
+         * @return Value of the weather, or <code>NaN</code> if it's not available.
+         */
+        double valueOf(CurrentWeather weather);
+    }
+
+    /**
+     * A city placed on the grid.
+     */
+    private static class City {
+        private final double lat;
+        private final double lon;
+        private final double value;
+
+        private City(double lat, double lon, double value) {
+            this.lat = lat;
+            this.lon = lon;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Spatial index of the cities which may be weighed for a point of the grid: square buckets,
+     * about as large as the radius, over the grid and the radius around it.
+     */
+    private class Buckets {
+        private static final int MAX_BUCKETS = 1024;
+
+        private final double minLat;
+        private final double minLon;
+        private final double size;
+        private final int bucketRows;
+        private final int bucketColumns;
+        private final List<City>[] buckets;
+
+        private Buckets() {
+            double maxLat = Math.min(south + (rows - 1) * latStep + radiusDegrees, 90);
+            this.minLat = Math.max(south - radiusDegrees, -90);
+            double cos = Math.max(Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat)))), 0.01);
+            double lonDegrees = Math.min(radiusDegrees / cos, 180);
+            this.minLon = west - lonDegrees;
+            double maxLon = west + (columns - 1) * lonStep + lonDegrees;
+
+            this.size = Math.max(radiusDegrees, Math.max(maxLat - minLat, maxLon - minLon) / MAX_BUCKETS);
+            this.bucketRows = (int) ((maxLat - minLat) / size) + 1;
+            this.bucketColumns = (int) ((maxLon - minLon) / size) + 1;
+            this.buckets = newBuckets(bucketRows * bucketColumns);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<City>[] newBuckets(int count) {
+            return (List<City>[]) new List<?>[count];
+        }
+
+        private int row(double lat) {
+            return clamp((int) Math.floor((lat - minLat) / size), bucketRows - 1);
+        }
+
+        private int column(double lon) {
+            return clamp((int) Math.floor((lon - minLon) / size), bucketColumns - 1);
+        }
+
+        private List<City> get(int row, int column) {
+            return buckets[row * bucketColumns + column];
+        }
+
+        private int indexOf(City city) {
+            int row = (int) Math.floor((city.lat - minLat) / size);
+            int column = (int) Math.floor((city.lon - minLon) / size);
+            boolean inside = row >= 0 && row < bucketRows && column >= 0 && column < bucketColumns;
+            return inside ? row * bucketColumns + column : -1;
+        }
+
+        private void add(City city) {
+            int index = indexOf(city);
+            if (index < 0) {
+                return; // too far from the grid to be weighed
+            }
+            if (buckets[index] == null) {
+                buckets[index] = new ArrayList<City>();
+            }
+            buckets[index].add(city);
+        }
+
+        private void remove(City city) {
+            int index = indexOf(city);
+            if (index >= 0 && buckets[index] != null) {
+                buckets[index].remove(city);
+            }
+        }
+    }
+}
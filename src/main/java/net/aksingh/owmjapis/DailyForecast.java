@@ -56,6 +56,7 @@ public class DailyForecast extends AbstractForecast {
     Instance variables
      */
     private final List<Forecast> forecastList;
+    private final int forecastListSize;
 
     /*
     Constructors
@@ -73,6 +74,19 @@ public class DailyForecast extends AbstractForecast {
                 }
             }
         }
+        this.forecastListSize = this.forecastList.size();
+    }
+
+    /**
+     * Creates a view over the first <code>count</code> forecasts of <code>source</code>.
+     * The forecast list is shared with <code>source</code>, not copied, and so is
+     * the raw response, which still holds all the forecasts of <code>source</code>.
+     */
+    DailyForecast(DailyForecast source, int count) {
+        super(source, Math.max(0, Math.min(count, source.forecastListSize)));
+
+        this.forecastList = source.forecastList;
+        this.forecastListSize = this.getForecastCount();
     }
 
     /**
@@ -80,9 +94,21 @@ public class DailyForecast extends AbstractForecast {
      * @return Forecast instance if available, otherwise <code>null</code>.
      */
     public Forecast getForecastInstance(int index) {
+        if (index >= this.forecastListSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.forecastListSize);
+        }
         return this.forecastList.get(index);
     }
 
+    /**
+     * @param count Number of forecasts wanted.
+     * @return This instance if it has no more than <code>count</code> forecasts,
+     * otherwise a view over the first <code>count</code> forecasts.
+     */
+    DailyForecast slice(int count) {
+        return (count >= this.forecastListSize) ? this : new DailyForecast(this, count);
+    }
+
     /**
      * <p>
      * Parses forecast data (one element in the forecastList) and provides methods to get/access the same information.
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+/**
+ * <p>
+ * 64-bit FNV-1a hashing of the characters of responses, which is quick enough to tell
+ * whether a response changed without parsing it.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+class Fnv1a {
+    /**
+     * Hash of no characters, to continue from.
+     */
+    static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private Fnv1a() {
+    }
+
+    /**
+     * @return Hash of the characters of the string, mixed with its length.
+     */
+    static long hash(String string) {
+        return hash(OFFSET_BASIS, string, 0, string.length()) ^ string.length();
+    }
+
+    /**
+     * @param hash Hash of the characters before <code>from</code>, or {@link #OFFSET_BASIS} if none
+     * @return Hash continued over the characters from <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive) of the string.
+     */
+    static long hash(long hash, String string, int from, int to) {
+        for (int i = from; i < to; i++) {
+            hash ^= string.charAt(i);
+            hash *= PRIME;
+        }
+        return hash;
+    }
+}
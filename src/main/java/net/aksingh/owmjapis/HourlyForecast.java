@@ -83,6 +83,13 @@ public class HourlyForecast extends AbstractForecast {
         return this.forecastList.get(index);
     }
 
+    /**
+     * @return Count of forecasts in the list, which may differ from the count given by OWM.org.
+     */
+    int forecastListSize() {
+        return this.forecastList.size();
+    }
+
     /**
      * <p>
      * Parses forecast data (one element in the forecastList) and provides methods to get/access the same information.
@@ -105,6 +112,8 @@ public class HourlyForecast extends AbstractForecast {
          */
         private static final String JSON_SYS = "sys";
         private static final String JSON_DT_TEXT = "dt_txt";
+        private static final String JSON_RAIN = "rain";
+        private static final String JSON_SNOW = "snow";
 
         /*
         Instance Variables
@@ -113,6 +122,8 @@ public class HourlyForecast extends AbstractForecast {
 
         private final Clouds clouds;
         private final Main main;
+        private final Rain rain;
+        private final Snow snow;
         private final Sys sys;
         private final Wind wind;
 
@@ -130,6 +141,12 @@ public class HourlyForecast extends AbstractForecast {
             JSONObject jsonObjMain = (jsonObj != null) ? jsonObj.optJSONObject(JSON_MAIN) : null;
             this.main = (jsonObjMain != null) ? new Main(jsonObjMain) : null;
 
+            JSONObject jsonObjRain = (jsonObj != null) ? jsonObj.optJSONObject(JSON_RAIN) : null;
+            this.rain = (jsonObjRain != null) ? new Rain(jsonObjRain) : null;
+
+            JSONObject jsonObjSnow = (jsonObj != null) ? jsonObj.optJSONObject(JSON_SNOW) : null;
+            this.snow = (jsonObjSnow != null) ? new Snow(jsonObjSnow) : null;
+
             JSONObject jsonObjSys = (jsonObj != null) ? jsonObj.optJSONObject(JSON_SYS) : null;
             this.sys = (jsonObjSys != null) ? new Sys(jsonObjSys) : null;
 
@@ -155,6 +172,20 @@ public class HourlyForecast extends AbstractForecast {
             return main != null;
         }
 
+        /**
+         * @return <code>true</code> if Rain instance is available, otherwise <code>false</code>.
+         */
+        public boolean hasRainInstance() {
+            return rain != null;
+        }
+
+        /**
+         * @return <code>true</code> if Snow instance is available, otherwise <code>false</code>.
+         */
+        public boolean hasSnowInstance() {
+            return snow != null;
+        }
+
         /**
          * @return <code>true</code> if Sys instance is available, otherwise <code>false</code>.
          */
@@ -187,6 +218,20 @@ public class HourlyForecast extends AbstractForecast {
             return this.main;
         }
 
+        /**
+         * @return Rain instance if available, otherwise <code>null</code>.
+         */
+        public Rain getRainInstance() {
+            return this.rain;
+        }
+
+        /**
+         * @return Snow instance if available, otherwise <code>null</code>.
+         */
+        public Snow getSnowInstance() {
+            return this.snow;
+        }
+
         /**
          * @return Sys instance if available, otherwise <code>null</code>.
          */
@@ -302,6 +347,96 @@ public class HourlyForecast extends AbstractForecast {
             }
         }
 
+        /**
+         * <p>
+         * Parses rain data and provides methods to get/access the same information.
+         * This class provides <code>has</code> and <code>get</code> methods to access the information.
+         * </p>
+         * <p>
+         * <code>has</code> methods can be used to check if the data exists, i.e., if the data was available
+         * (successfully downloaded) and was parsed correctly.
+         * <code>get</code> methods can be used to access the data, if the data exists, otherwise <code>get</code>
+         * methods will give value as per following basis:
+         * Boolean: <code>false</code>
+         * Integral: Minimum value (MIN_VALUE)
+         * Floating point: Not a number (NaN)
+         * Others: <code>null</code>
+         * </p>
+         *
+         * @author agent
+         * @version 2026/10/19
+         * @since 2.5.0.6
+         */
+        public static class Rain implements Serializable {
+            private static final String JSON_RAIN_3HOUR = "3h";
+
+            private final float rain3h;
+
+            Rain() {
+                this.rain3h = Float.NaN;
+            }
+
+            Rain(JSONObject jsonObj) {
+                this.rain3h = (jsonObj != null) ? (float) jsonObj.optDouble(JSON_RAIN_3HOUR, Double.NaN) : Float.NaN;
+            }
+
+            public boolean hasRain3h() {
+                return !Float.isNaN(this.rain3h);
+            }
+
+            /**
+             * @return Volume of rain over the 3 hours of the forecast.
+             */
+            public float getRain3h() {
+                return this.rain3h;
+            }
+        }
+
+        /**
+         * <p>
+         * Parses snow data and provides methods to get/access the same information.
+         * This class provides <code>has</code> and <code>get</code> methods to access the information.
+         * </p>
+         * <p>
+         * <code>has</code> methods can be used to check if the data exists, i.e., if the data was available
+         * (successfully downloaded) and was parsed correctly.
+         * <code>get</code> methods can be used to access the data, if the data exists, otherwise <code>get</code>
+         * methods will give value as per following basis:
+         * Boolean: <code>false</code>
+         * Integral: Minimum value (MIN_VALUE)
+         * Floating point: Not a number (NaN)
+         * Others: <code>null</code>
+         * </p>
+         *
+         * @author agent
+         * @version 2026/10/19
+         * @since 2.5.0.6
+         */
+        public static class Snow implements Serializable {
+            private static final String JSON_SNOW_3HOUR = "3h";
+
+            private final float snow3h;
+
+            Snow() {
+                this.snow3h = Float.NaN;
+            }
+
+            Snow(JSONObject jsonObj) {
+                this.snow3h = (jsonObj != null) ? (float) jsonObj.optDouble(JSON_SNOW_3HOUR, Double.NaN) : Float.NaN;
+            }
+
+            public boolean hasSnow3h() {
+                return !Float.isNaN(this.snow3h);
+            }
+
+            /**
+             * @return Volume of snow over the 3 hours of the forecast.
+             */
+            public float getSnow3h() {
+                return this.snow3h;
+            }
+        }
+
         /**
          * <p>
          * Parses sys data and provides methods to get/access the same information.
@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * <p>
+ * Rolls the 3-hour forecasts of hourly forecasts up into windows, e.g., local days or parts
+ * of the day, computing count, minimum, maximum, sum and mean of a set of {@link Metric}s
+ * for every window, in one pass over the forecasts and with no boxing.
+ * </p>
+ * <p>
+ * Windows are laid out from midnight of the first forecast's day, in local time of a given
+ * time zone, or in solar time of each city, from its longitude, when its time zone is not
+ * known. A forecast goes into every window containing its time, so sliding windows, with a
+ * step shorter than their length, overlap.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>HourlyForecastAggregator aggregator = new HourlyForecastAggregator(</code><br>
+ * <code>&nbsp;&nbsp;&nbsp;&nbsp;HourlyForecastAggregator.Windows.localDays(TimeZone.getTimeZone("Europe/London")),</code><br>
+ * <code>&nbsp;&nbsp;&nbsp;&nbsp;HourlyForecastAggregator.TEMPERATURE, HourlyForecastAggregator.RAIN);</code><br>
+ * <code>HourlyForecastAggregator.Aggregate days = aggregator.aggregate(hourlyForecast);</code><br>
+ * <code>float maxToday = days.getMax(0, 0);</code><br>
+ * <code>float rainToday = days.getSum(0, 1);</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class HourlyForecastAggregator {
+    private static final long HOUR = 60L * 60 * 1000;
+    private static final long DAY = 24 * HOUR;
+
+    /**
+     * Temperature
+     */
+    public static final Metric TEMPERATURE = new Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return forecast.hasMainInstance() ? forecast.getMainInstance().getTemperature() : Double.NaN;
+        }
+    };
+
+    /**
+     * Humidity (in percentage)
+     */
+    public static final Metric HUMIDITY = new Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return forecast.hasMainInstance() ? forecast.getMainInstance().getHumidity() : Double.NaN;
+        }
+    };
+
+    /**
+     * Pressure
+     */
+    public static final Metric PRESSURE = new Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return forecast.hasMainInstance() ? forecast.getMainInstance().getPressure() : Double.NaN;
+        }
+    };
+
+    /**
+     * Wind speed
+     */
+    public static final Metric WIND_SPEED = new Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return forecast.hasWindInstance() ? forecast.getWindInstance().getWindSpeed() : Double.NaN;
+        }
+    };
+
+    /**
+     * Clouds (in percentage)
+     */
+    public static final Metric CLOUDS = new Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return forecast.hasCloudsInstance() ? forecast.getCloudsInstance().getPercentageOfClouds() : Double.NaN;
+        }
+    };
+
+    /**
+     * Rain over the 3 hours; a forecast without rain counts as none.
+     */
+    public static final Metric RAIN = new Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return (forecast.hasRainInstance() && forecast.getRainInstance().hasRain3h())
+                    ? forecast.getRainInstance().getRain3h() : 0;
+        }
+    };
+
+    /**
+     * Snow over the 3 hours; a forecast without snow counts as none.
+     */
+    public static final Metric SNOW = new Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return (forecast.hasSnowInstance() && forecast.getSnowInstance().hasSnow3h())
+                    ? forecast.getSnowInstance().getSnow3h() : 0;
+        }
+    };
+
+    private final Windows windows;
+    private final Metric[] metrics;
+
+    /**
+     * @param windows Windows to roll the forecasts up into
+     * @param metrics Metrics to compute for every window, referred to by their index from then on
+     */
+    public HourlyForecastAggregator(Windows windows, Metric... metrics) {
+        if (windows == null) {
+            throw new IllegalArgumentException("Windows must be given.");
+        }
+        if (metrics.length == 0) {
+            throw new IllegalArgumentException("At least one metric must be given.");
+        }
+        this.windows = windows;
+        this.metrics = metrics.clone();
+    }
+
+    /**
+     * @param forecasts Hourly forecasts, e.g., of many cities
+     * @return Aggregate of each hourly forecast, in the same order.
+     */
+    public List<Aggregate> aggregate(Collection<HourlyForecast> forecasts) {
+        List<Aggregate> aggregates = new ArrayList<Aggregate>(forecasts.size());
+        for (HourlyForecast forecast : forecasts) {
+            aggregates.add(aggregate(forecast));
+        }
+        return aggregates;
+    }
+
+    /**
+     * @param hourlyForecast Hourly forecast, with its forecasts in order of time
+     * @return Aggregate of the forecasts, with no windows if none of them has a time.
+     */
+    public Aggregate aggregate(HourlyForecast hourlyForecast) {
+        int size = hourlyForecast.forecastListSize();
+        long solarOffset = (windows.zone == null) ? solarOffset(hourlyForecast) : 0;
+
+        // local times, relative to midnight of the first forecast's day
+        long origin = Long.MIN_VALUE;
+        long lastLocal = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            HourlyForecast.Forecast forecast = hourlyForecast.getForecastInstance(i);
+            if (forecast.hasDateTime()) {
+                long local = windows.toLocal(forecast.getDateTime().getTime(), solarOffset);
+                if (origin == Long.MIN_VALUE) {
+                    origin = floor(local, DAY);
+                }
+                lastLocal = Math.max(lastLocal, local);
+            }
+        }
+        if (origin == Long.MIN_VALUE) {
+            return new Aggregate(windows, solarOffset, 0, 0, metrics.length);
+        }
+
+        int windowCount = (int) (floor(lastLocal - origin, windows.step) / windows.step) + 1;
+        Aggregate aggregate = new Aggregate(windows, solarOffset, origin, windowCount, metrics.length);
+        double[] values = new double[metrics.length];
+
+        for (int i = 0; i < size; i++) {
+            HourlyForecast.Forecast forecast = hourlyForecast.getForecastInstance(i);
+            if (!forecast.hasDateTime()) {
+                continue;
+            }
+            long relative = windows.toLocal(forecast.getDateTime().getTime(), solarOffset) - origin;
+            if (relative < 0) {
+                continue; // out of order, before the first window
+            }
+            for (int m = 0; m < metrics.length; m++) {
+                values[m] = metrics[m].valueOf(forecast);
+            }
+
+            int last = (int) (floor(relative, windows.step) / windows.step);
+            int first = Math.max(0, (int) (floor(relative - windows.length, windows.step) / windows.step) + 1);
+            for (int w = first; w <= last; w++) {
+                aggregate.add(w, values);
+            }
+        }
+        return aggregate;
+    }
+
+    /**
+     * @return Offset (in milliseconds) of solar time at the city's longitude, in whole hours.
+     */
+    private static long solarOffset(HourlyForecast hourlyForecast) {
+        if (hourlyForecast.hasCityInstance() && hourlyForecast.getCityInstance().hasCoordInstance()) {
+            AbstractForecast.City.Coord coord = hourlyForecast.getCityInstance().getCoordInstance();
+            if (coord.hasLongitude()) {
+                return Math.round(coord.getLongitude() / 15) * HOUR;
+            }
+        }
+        return 0;
+    }
+
+    private static long floor(long value, long unit) {
+        long floor = value - value % unit;
+        return (value < 0 && floor != value) ? floor - unit : floor;
+    }
+
+    /**
+     * <p>
+     * A value of every forecast to be aggregated.
+     * </p>
+     */
+    public interface Metric {
+        /**
+         * @param forecast Forecast
+         * @return Value of the forecast, or <code>NaN</code> if it's not available.
+         */
+        double valueOf(HourlyForecast.Forecast forecast);
+    }
+
+    /**
+     * <p>
+     * Layout of windows in time: their length, the step from one to the next, and the time
+     * zone whose midnight they start from.
+     * </p>
+     *
+     * @since 2.5.0.6
+     */
+    public static class Windows {
+        private final long length;
+        private final long step;
+        private final TimeZone zone;
+
+        private Windows(long length, long step, TimeZone zone) {
+            if (length <= 0 || step <= 0) {
+                throw new IllegalArgumentException("Length and step of windows must be positive.");
+            }
+            this.length = length;
+            this.step = step;
+            this.zone = zone;
+        }
+
+        /**
+         * @param zone Time zone of the cities
+         * @return Windows of the days in the time zone.
+         */
+        public static Windows localDays(TimeZone zone) {
+            return new Windows(DAY, DAY, zone);
+        }
+
+        /**
+         * @return Windows of the days in solar time of each city, for when time zones are not known.
+         */
+        public static Windows solarDays() {
+            return new Windows(DAY, DAY, null);
+        }
+
+        /**
+         * @param zone Time zone of the cities
+         * @return Windows of the night, morning, afternoon and evening (6 hours each) in the time zone.
+         */
+        public static Windows partsOfDay(TimeZone zone) {
+            return new Windows(6 * HOUR, 6 * HOUR, zone);
+        }
+
+        /**
+         * @param length Length (in hours) of the windows
+         * @param step   Time (in hours) from a window to the next; less than the length for overlapping windows
+         * @param zone   Time zone of the cities, or <code>null</code> for solar time of each city
+         * @return Windows sliding from midnight on.
+         */
+        public static Windows sliding(int length, int step, TimeZone zone) {
+            return new Windows(length * HOUR, step * HOUR, zone);
+        }
+
+        private long toLocal(long time, long solarOffset) {
+            return time + ((zone != null) ? zone.getOffset(time) : solarOffset);
+        }
+
+        private long fromLocal(long local, long solarOffset) {
+            if (zone == null) {
+                return local - solarOffset;
+            }
+            return local - zone.getOffset(local - zone.getOffset(local));
+        }
+    }
+
+    /**
+     * <p>
+     * Statistics of each metric in each window, indexed by window and by the index of the metric
+     * as given to the aggregator. Windows with no forecasts have a count of 0, and <code>NaN</code>
+     * for the rest.
+     * </p>
+     *
+     * @since 2.5.0.6
+     */
+    public static class Aggregate {
+        private final Windows windows;
+        private final long solarOffset;
+        private final long origin;
+        private final int windowCount;
+        private final int metricCount;
+
+        private final int[] count;
+        private final double[] min;
+        private final double[] max;
+        private final double[] sum;
+
+        private Aggregate(Windows windows, long solarOffset, long origin, int windowCount, int metricCount) {
+            this.windows = windows;
+            this.solarOffset = solarOffset;
+            this.origin = origin;
+            this.windowCount = windowCount;
+            this.metricCount = metricCount;
+
+            int cells = windowCount * metricCount;
+            this.count = new int[cells];
+            this.min = new double[cells];
+            this.max = new double[cells];
+            this.sum = new double[cells];
+        }
+
+        private void add(int window, double[] values) {
+            int cell = window * metricCount;
+            for (int m = 0; m < metricCount; m++, cell++) {
+                double value = values[m];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                if (count[cell] == 0) {
+                    min[cell] = value;
+                    max[cell] = value;
+                } else {
+                    min[cell] = Math.min(min[cell], value);
+                    max[cell] = Math.max(max[cell], value);
+                }
+                sum[cell] += value;
+                count[cell]++;
+            }
+        }
+
+        public int getWindowCount() {
+            return this.windowCount;
+        }
+
+        /**
+         * @param window Index of the window
+         * @return Start of the window.
+         */
+        public Date getWindowStart(int window) {
+            checkWindow(window);
+            return new Date(windows.fromLocal(origin + window * windows.step, solarOffset));
+        }
+
+        /**
+         * @param window Index of the window
+         * @return End (exclusive) of the window.
+         */
+        public Date getWindowEnd(int window) {
+            checkWindow(window);
+            return new Date(windows.fromLocal(origin + window * windows.step + windows.length, solarOffset));
+        }
+
+        /**
+         * @return Count of forecasts in the window with a value of the metric.
+         */
+        public int getCount(int window, int metric) {
+            return count[cell(window, metric)];
+        }
+
+        public float getMin(int window, int metric) {
+            int cell = cell(window, metric);
+            return (count[cell] > 0) ? (float) min[cell] : Float.NaN;
+        }
+
+        public float getMax(int window, int metric) {
+            int cell = cell(window, metric);
+            return (count[cell] > 0) ? (float) max[cell] : Float.NaN;
+        }
+
+        public float getSum(int window, int metric) {
+            int cell = cell(window, metric);
+            return (count[cell] > 0) ? (float) sum[cell] : Float.NaN;
+        }
+
+        public float getMean(int window, int metric) {
+            int cell = cell(window, metric);
+            return (count[cell] > 0) ? (float) (sum[cell] / count[cell]) : Float.NaN;
+        }
+
+        private int cell(int window, int metric) {
+            checkWindow(window);
+            if (metric < 0 || metric >= metricCount) {
+                throw new IndexOutOfBoundsException("Metric: " + metric + ", Count: " + metricCount);
+            }
+            return window * metricCount + metric;
+        }
+
+        private void checkWindow(int window) {
+            if (window < 0 || window >= windowCount) {
+                throw new IndexOutOfBoundsException("Window: " + window + ", Count: " + windowCount);
+            }
+        }
+    }
+}
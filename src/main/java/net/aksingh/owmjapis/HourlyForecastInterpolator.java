@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.Date;
+
+/**
+ * <p>
+ * Interpolates metrics of an hourly forecast at any time between its first and last forecast,
+ * linearly between the two forecasts around the time, or along the shorter arc for circular
+ * metrics like {@link #WIND_DEGREE}.
+ * </p>
+ * <p>
+ * The times and values of the forecasts are copied into primitive arrays once, when created;
+ * after that, queries only search those arrays, and {@link #valuesAt(int, long[], float[])}
+ * answers a whole array of times with no allocation. Times out of the range of the forecasts,
+ * and times next to a forecast without the metric, give <code>NaN</code>.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>HourlyForecastInterpolator interpolator = new HourlyForecastInterpolator(hourlyForecast,</code><br>
+ * <code>&nbsp;&nbsp;&nbsp;&nbsp;HourlyForecastAggregator.TEMPERATURE, HourlyForecastInterpolator.WIND_DEGREE);</code><br>
+ * <code>interpolator.valuesAt(0, times, temperatures);</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.HourlyForecastAggregator
+ * @since 2.5.0.6
+ */
+public class HourlyForecastInterpolator {
+
+    /**
+     * Wind degree, interpolated along the shorter arc
+     */
+    public static final HourlyForecastAggregator.Metric WIND_DEGREE = circular(new HourlyForecastAggregator.Metric() {
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return forecast.hasWindInstance() ? forecast.getWindInstance().getWindDegree() : Double.NaN;
+        }
+    });
+
+    private final long[] times;
+    private final float[][] values;
+    private final boolean[] circular;
+
+    /**
+     * @param hourlyForecast Hourly forecast; forecasts without a time, or out of order, are left out
+     * @param metrics        Metrics to interpolate, referred to by their index from then on
+     */
+    public HourlyForecastInterpolator(HourlyForecast hourlyForecast, HourlyForecastAggregator.Metric... metrics) {
+        int size = hourlyForecast.forecastListSize();
+        long[] times = new long[size];
+        float[][] values = new float[metrics.length][size];
+        int samples = 0;
+
+        for (int i = 0; i < size; i++) {
+            HourlyForecast.Forecast forecast = hourlyForecast.getForecastInstance(i);
+            if (!forecast.hasDateTime()) {
+                continue;
+            }
+            long time = forecast.getDateTime().getTime();
+            if (samples > 0 && time <= times[samples - 1]) {
+                continue;
+            }
+            times[samples] = time;
+            for (int m = 0; m < metrics.length; m++) {
+                values[m][samples] = (float) metrics[m].valueOf(forecast);
+            }
+            samples++;
+        }
+
+        this.times = new long[samples];
+        System.arraycopy(times, 0, this.times, 0, samples);
+        this.values = new float[metrics.length][samples];
+        this.circular = new boolean[metrics.length];
+        for (int m = 0; m < metrics.length; m++) {
+            System.arraycopy(values[m], 0, this.values[m], 0, samples);
+            this.circular[m] = metrics[m] instanceof Circular;
+        }
+    }
+
+    /**
+     * @param metric Metric in degrees
+     * @return Metric to be interpolated along the shorter arc between two values.
+     */
+    public static HourlyForecastAggregator.Metric circular(HourlyForecastAggregator.Metric metric) {
+        return new Circular(metric);
+    }
+
+    /**
+     * @return Count of forecasts interpolated between.
+     */
+    public int getSampleCount() {
+        return this.times.length;
+    }
+
+    /**
+     * @return Time of the first forecast if available, otherwise <code>null</code>.
+     */
+    public Date getStart() {
+        return (times.length > 0) ? new Date(times[0]) : null;
+    }
+
+    /**
+     * @return Time of the last forecast if available, otherwise <code>null</code>.
+     */
+    public Date getEnd() {
+        return (times.length > 0) ? new Date(times[times.length - 1]) : null;
+    }
+
+    /**
+     * @param metric Index of the metric
+     * @param time   Time (in milliseconds since the epoch)
+     * @return Value of the metric at the time if available, otherwise <code>NaN</code>.
+     */
+    public float valueAt(int metric, long time) {
+        float[] column = values[metric];
+        int before = sampleBefore(time, 0);
+        return (before >= 0) ? interpolate(column, circular[metric], before, time) : Float.NaN;
+    }
+
+    /**
+     * Interpolates the metric at each of the times, searching from where the previous time
+     * was found, so times in order are answered in a single walk over the forecasts.
+     *
+     * @param metric Index of the metric
+     * @param times  Times (in milliseconds since the epoch)
+     * @param out    Values of the metric at the times, or <code>NaN</code>; at least as long as <code>times</code>
+     */
+    public void valuesAt(int metric, long[] times, float[] out) {
+        if (out.length < times.length) {
+            throw new IllegalArgumentException("Output must be at least as long as the times.");
+        }
+        float[] column = values[metric];
+        boolean circular = this.circular[metric];
+        int hint = 0;
+
+        for (int q = 0; q < times.length; q++) {
+            int before = sampleBefore(times[q], hint);
+            if (before >= 0) {
+                out[q] = interpolate(column, circular, before, times[q]);
+                hint = before;
+            } else {
+                out[q] = Float.NaN;
+            }
+        }
+    }
+
+    /**
+     * @return Index of the last forecast at or before the time, such that the time is not after
+     * the next forecast, or -1 if the time is out of range.
+     */
+    private int sampleBefore(long time, int hint) {
+        int last = times.length - 1;
+        if (last < 0 || time < times[0] || time > times[last]) {
+            return -1;
+        }
+        if (last == 0) {
+            return 0;
+        }
+
+        // the hint, or the one after it, is the answer for times in order
+        if (hint < last && times[hint] <= time) {
+            if (time <= times[hint + 1]) {
+                return hint;
+            }
+            if (hint + 1 < last && time <= times[hint + 2]) {
+                return hint + 1;
+            }
+        }
+
+        int low = 0;
+        int high = last - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (times[mid] <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private float interpolate(float[] column, boolean circular, int before, long time) {
+        if (before == times.length - 1 || time == times[before]) {
+            return column[before];
+        }
+        float from = column[before];
+        float to = column[before + 1];
+        float fraction = (float) (time - times[before]) / (times[before + 1] - times[before]);
+
+        if (!circular) {
+            return from + (to - from) * fraction;
+        }
+        float delta = ((to - from) % 360 + 540) % 360 - 180;
+        float value = (from + delta * fraction) % 360;
+        return (value < 0) ? value + 360 : value;
+    }
+
+    /**
+     * A metric in degrees, marked to be interpolated along the shorter arc.
+     */
+    private static class Circular implements HourlyForecastAggregator.Metric {
+        private final HourlyForecastAggregator.Metric metric;
+
+        private Circular(HourlyForecastAggregator.Metric metric) {
+            this.metric = metric;
+        }
+
+        public double valueOf(HourlyForecast.Forecast forecast) {
+            return metric.valueOf(forecast);
+        }
+    }
+}
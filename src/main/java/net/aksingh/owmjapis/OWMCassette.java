@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>
+ * Records the requests made to OWM.org, with their responses and timing, into a compact
+ * file, and replays them back, so that the same traffic can be run through different
+ * versions of this library and compared.
+ * </p>
+ * <p>
+ * While recording, every request is made as usual, and its address (without the API key),
+ * status, response and time taken are written down. While replaying, no request is made:
+ * the response recorded for the address is served instead, as fast as possible or after
+ * the time the request originally took. {@link #play(OpenWeatherMap, ExecutorService)} makes
+ * all the recorded requests again, at their original pace or as fast as possible.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>OWMCassette recording = OWMCassette.record(new FileOutputStream("day.owmc"));</code><br>
+ * <code>owm.setCassette(recording);</code><br>
+ * <code>...</code><br>
+ * <code>recording.close();</code><br>
+ * <code>OWMCassette replay = OWMCassette.replay(new FileInputStream("day.owmc"), OWMCassette.Timing.AS_FAST_AS_POSSIBLE);</code><br>
+ * <code>owm.setCassette(replay);</code><br>
+ * <code>OWMCassette.Result result = replay.play(owm, executor);</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.OpenWeatherMap#setCassette(OWMCassette)
+ * @since 2.5.0.6
+ */
+public class OWMCassette {
+    private static final int MAGIC = 0x4f574d43; // "OWMC"
+    private static final byte VERSION = 1;
+    private static final byte MORE = 1;
+    private static final byte END = 0;
+
+    /*
+    Statuses recorded for requests which failed without a response
+     */
+    private static final int NO_RESPONSE = -1;
+    private static final int TIMED_OUT = -2;
+    private static final String PARAM_APPID = "appId=";
+
+    private final DataOutputStream out;
+    private final long startNanos;
+
+    private final Timing timing;
+    private final List<Record> records;
+    private final ConcurrentMap<String, List<Record>> recordsByAddress;
+    private final ConcurrentMap<String, AtomicInteger> cursors;
+    private final ThreadLocal<Record> playing;
+
+    private OWMCassette(DataOutputStream out) {
+        this.out = out;
+        this.startNanos = System.nanoTime();
+        this.timing = null;
+        this.records = null;
+        this.recordsByAddress = null;
+        this.cursors = null;
+        this.playing = null;
+    }
+
+    private OWMCassette(List<Record> records, Timing timing) {
+        this.out = null;
+        this.startNanos = 0;
+        this.timing = timing;
+        this.records = Collections.unmodifiableList(records);
+        this.recordsByAddress = new ConcurrentHashMap<String, List<Record>>();
+        this.cursors = new ConcurrentHashMap<String, AtomicInteger>();
+        this.playing = new ThreadLocal<Record>();
+
+        for (Record record : records) {
+            List<Record> same = recordsByAddress.get(record.address);
+            if (same == null) {
+                same = new ArrayList<Record>();
+                recordsByAddress.put(record.address, same);
+                cursors.put(record.address, new AtomicInteger());
+            }
+            same.add(record);
+        }
+    }
+
+    /**
+     * @param out Stream to record into; it's closed by {@link #close()}
+     * @return Cassette recording the requests made while it's set.
+     */
+    public static OWMCassette record(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out)));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        return new OWMCassette(data);
+    }
+
+    /**
+     * @param in     Stream of a recording; it's read fully and closed
+     * @param timing Whether to serve responses after the time they originally took, or at once
+     * @return Cassette replaying the recording.
+     */
+    public static OWMCassette replay(InputStream in, Timing timing) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+        try {
+            if (data.readInt() != MAGIC || data.readByte() != VERSION) {
+                throw new IOException("Not a recording of this version of OWM JAPIs");
+            }
+
+            List<Record> records = new ArrayList<Record>();
+            while (data.readByte() == MORE) {
+                long offset = data.readLong();
+                long elapsed = data.readLong();
+                int status = data.readInt();
+                OWMMetrics.Endpoint endpoint = OWMMetrics.Endpoint.values()[data.readByte()];
+                String address = data.readUTF();
+                int length = data.readInt();
+                String body = null;
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    data.readFully(bytes);
+                    body = new String(bytes, "UTF-8");
+                }
+                records.add(new Record(offset, elapsed, status, endpoint, address, body));
+            }
+            return new OWMCassette(records, timing);
+        } finally {
+            data.close();
+        }
+    }
+
+    public boolean isRecording() {
+        return this.out != null;
+    }
+
+    /**
+     * @return Count of requests in the recording, if replaying, otherwise 0.
+     */
+    public int size() {
+        return (records != null) ? records.size() : 0;
+    }
+
+    /**
+     * Ends the recording, and closes its stream.
+     */
+    public void close() throws IOException {
+        if (out != null) {
+            synchronized (out) {
+                out.writeByte(END);
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Makes every recorded request through the client, which should have this cassette set.
+     * With the original timing, requests are made at the pace they were recorded at;
+     * otherwise, all of them are handed to the executor at once.
+     *
+     * @param owm      Client, replaying this cassette
+     * @param executor Executor for making the requests
+     * @return Count, failures and time taken of the requests.
+     * @throws InterruptedException If interrupted while waiting for the requests.
+     */
+    public Result play(final OpenWeatherMap owm, ExecutorService executor)
+            throws InterruptedException {
+        if (records == null) {
+            throw new IllegalStateException("Only a replaying cassette can be played.");
+        }
+
+        final CountDownLatch done = new CountDownLatch(records.size());
+        final AtomicLong failures = new AtomicLong();
+        long start = System.nanoTime();
+        long firstOffset = records.isEmpty() ? 0 : records.get(0).offset;
+
+        for (final Record record : records) {
+            if (timing == Timing.ORIGINAL) {
+                long wait = (record.offset - firstOffset) - (System.nanoTime() - start);
+                if (wait > 0) {
+                    Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                }
+            }
+            executor.execute(new Runnable() {
+                public void run() {
+                    playing.set(record);
+                    try {
+                        owm.fetch(record.address, record.endpoint);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        playing.remove();
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        done.await();
+
+        return new Result(records.size(), failures.get(), System.nanoTime() - start);
+    }
+
+    /*
+    Recording and replaying, by OpenWeatherMap
+     */
+
+    void record(String address, String baseUrl, OWMMetrics.Endpoint endpoint, int status, String body, long elapsed) {
+        String relative = relativeAddress(address, baseUrl);
+        try {
+            synchronized (out) {
+                out.writeByte(MORE);
+                out.writeLong(System.nanoTime() - startNanos);
+                out.writeLong(elapsed);
+                out.writeInt(status);
+                out.writeByte(endpoint.ordinal());
+                out.writeUTF(relative);
+                if (body == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] bytes = body.getBytes("UTF-8");
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            RateLimitedLog.log("cassette", "Recording a request failed: " + e.getMessage());
+        }
+    }
+
+    void recordFailure(String address, String baseUrl, OWMMetrics.Endpoint endpoint, boolean timedOut, long elapsed) {
+        record(address, baseUrl, endpoint, timedOut ? TIMED_OUT : NO_RESPONSE, null, elapsed);
+    }
+
+    /**
+     * @return Response recorded for the address: the one being played on this thread,
+     * otherwise the next one recorded for the address, going round if need be.
+     * @throws OWMHttpException       If the request was answered with an error.
+     * @throws OWMConnectionException If the request failed without a response, or was not recorded.
+     * @throws OWMTimeoutException    If the request did not complete by its deadline.
+     */
+    String replay(String address, String baseUrl) {
+        String relative = relativeAddress(address, baseUrl);
+
+        Record record = playing.get();
+        if (record == null || !record.address.equals(relative)) {
+            List<Record> same = recordsByAddress.get(relative);
+            if (same == null) {
+                throw new OWMConnectionException(0, new IOException("Request not recorded: " + relative));
+            }
+            int cursor = cursors.get(relative).getAndIncrement();
+            record = same.get((cursor & Integer.MAX_VALUE) % same.size());
+        }
+
+        long elapsed = record.elapsed / 1000000;
+        if (timing == Timing.ORIGINAL && elapsed > 0) {
+            try {
+                Thread.sleep(elapsed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (record.status == TIMED_OUT) {
+            throw new OWMTimeoutException(elapsed, new IOException("Request timed out when recorded"));
+        } else if (record.status == NO_RESPONSE) {
+            throw new OWMConnectionException(elapsed, new IOException("Request failed when recorded"));
+        } else if (record.status != 200) {
+            throw new OWMHttpException(record.status, record.body, elapsed);
+        }
+        return record.body;
+    }
+
+    /**
+     * @return Address relative to the base address, and without the API key.
+     */
+    private static String relativeAddress(String address, String baseUrl) {
+        int from = address.startsWith(baseUrl) ? baseUrl.length() : 0;
+        int key = address.lastIndexOf(PARAM_APPID);
+        int to = (key >= from) ? key + PARAM_APPID.length() : address.length();
+        return address.substring(from, to);
+    }
+
+    /**
+     * Timings of replaying.
+     *
+     * @since 2.5.0.6
+     */
+    public static enum Timing {
+        /**
+         * Requests are played at the pace they were recorded at, and take as long as they took.
+         */
+        ORIGINAL,
+
+        /**
+         * Requests are played, and served, as fast as possible.
+         */
+        AS_FAST_AS_POSSIBLE
+    }
+
+    /**
+     * A recorded request.
+     */
+    private static class Record {
+        private final long offset;
+        private final long elapsed;
+        private final int status;
+        private final OWMMetrics.Endpoint endpoint;
+        private final String address;
+        private final String body;
+
+        private Record(long offset, long elapsed, int status, OWMMetrics.Endpoint endpoint, String address, String body) {
+            this.offset = offset;
+            this.elapsed = elapsed;
+            this.status = status;
+            this.endpoint = endpoint;
+            this.address = address;
+            this.body = body;
+        }
+    }
+
+    /**
+     * <p>
+     * Outcome of playing a recording.
+     * </p>
+     *
+     * @since 2.5.0.6
+     */
+    public static class Result {
+        private final long requests;
+        private final long failures;
+        private final long nanos;
+
+        private Result(long requests, long failures, long nanos) {
+            this.requests = requests;
+            this.failures = failures;
+            this.nanos = nanos;
+        }
+
+        public long getRequests() {
+            return this.requests;
+        }
+
+        /**
+         * @return Requests which failed, as recorded or otherwise.
+         */
+        public long getFailures() {
+            return this.failures;
+        }
+
+        /**
+         * @return Time (in milliseconds) taken to play all of the requests.
+         */
+        public long getElapsed() {
+            return this.nanos / 1000000;
+        }
+
+        /**
+         * @return Requests played per second.
+         */
+        public double getThroughput() {
+            return (nanos > 0) ? requests * 1e9 / nanos : 0;
+        }
+    }
+}
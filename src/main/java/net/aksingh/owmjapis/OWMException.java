@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+/**
+ * <p>
+ * Thrown when a request to OWM.org fails. Subclasses tell how it failed:
+ * with an error from OWM.org, without a response, or by running out of time.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.OWMHttpException
+ * @see net.aksingh.owmjapis.OWMConnectionException
+ * @see net.aksingh.owmjapis.OWMTimeoutException
+ * @since 2.5.0.6
+ */
+public class OWMException extends RuntimeException {
+    private final long elapsed;
+    private final boolean retryable;
+
+    public OWMException(String message, Throwable cause, long elapsed, boolean retryable) {
+        super(message, cause);
+        this.elapsed = elapsed;
+        this.retryable = retryable;
+    }
+
+    /**
+     * @return Time (in milliseconds) spent on the request before it failed
+     */
+    public long getElapsed() {
+        return this.elapsed;
+    }
+
+    /**
+     * @return <code>true</code> if the same request may succeed if made again later,
+     * otherwise <code>false</code>.
+     */
+    public boolean isRetryable() {
+        return this.retryable;
+    }
+}
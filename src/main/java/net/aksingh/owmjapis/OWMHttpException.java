@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * <p>
+ * Thrown when OWM.org responds to a request with an error, i.e., with any HTTP status
+ * other than 200, or with any other response code in the body. It is worth retrying
+ * when OWM.org is rate limiting (429) or failing (5xx).
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OWMHttpException extends OWMException {
+    /*
+    JSON Keys
+     */
+    private static final String JSON_MESSAGE = "message";
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final int responseCode;
+    private final String errorBody;
+    private final String errorMessage;
+
+    public OWMHttpException(int responseCode, String errorBody, long elapsed) {
+        this(responseCode, errorBody, messageOf(errorBody), elapsed);
+    }
+
+    /**
+     * For an error whose message was parsed from its body before, e.g., when it was cached.
+     */
+    OWMHttpException(int responseCode, String errorBody, String errorMessage, long elapsed) {
+        super("OWM.org responded with error " + responseCode + ((errorMessage != null) ? ": " + errorMessage : ""),
+                null, elapsed, responseCode == HTTP_TOO_MANY_REQUESTS || responseCode >= 500);
+        this.responseCode = responseCode;
+        this.errorBody = errorBody;
+        this.errorMessage = errorMessage;
+    }
+
+    private static String messageOf(String errorBody) {
+        if (errorBody == null) {
+            return null;
+        }
+        try {
+            return new JSONObject(errorBody).optString(JSON_MESSAGE, null);
+        } catch (JSONException e) { // e.g., a proxy's page
+            return null;
+        }
+    }
+
+    /**
+     * @return HTTP status of the response, or the response code in its body if only that tells of the error
+     */
+    public int getResponseCode() {
+        return this.responseCode;
+    }
+
+    public boolean hasErrorBody() {
+        return this.errorBody != null;
+    }
+
+    /**
+     * @return Body of the response if available, otherwise <code>null</code>.
+     */
+    public String getErrorBody() {
+        return this.errorBody;
+    }
+
+    public boolean hasErrorMessage() {
+        return this.errorMessage != null;
+    }
+
+    /**
+     * @return Message of the error from OWM.org if available, otherwise <code>null</code>.
+     */
+    public String getErrorMessage() {
+        return this.errorMessage;
+    }
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Metrics of the requests made to OWM.org and the parsing of their responses, kept per
+ * endpoint: latency of requests by outcome, time spent decompressing and parsing, bytes on
+ * the wire versus decompressed, and errors by HTTP status. They are kept by every instance of
+ * {@link OpenWeatherMap} and read by taking a snapshot, or as text for Prometheus.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>OWMMetrics.Snapshot snapshot = owm.getMetrics().getSnapshot();</code><br>
+ * <code>snapshot.getEndpoint(OWMMetrics.Endpoint.CURRENT_WEATHER).getLatency().getCount();</code><br>
+ * <code>String text = owm.getMetrics().toPrometheus();</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.OpenWeatherMap#getMetrics()
+ * @see <a href="http://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text format</a>
+ * @since 2.5.0.6
+ */
+public class OWMMetrics {
+    /**
+     * Error counted when a request does not complete in time.
+     */
+    public static final String ERROR_TIMEOUT = "timeout";
+
+    /**
+     * Error counted when a request fails without a response from OWM.org.
+     */
+    public static final String ERROR_IO = "io";
+
+    /*
+    Upper bounds of the histograms' buckets (in nanoseconds), from 100 microseconds, as parsing
+    takes well under a millisecond, to a minute, the default timeout of requests
+     */
+    private static final long[] BUCKETS = {
+            100000L, 250000L, 500000L,
+            1000000L, 2500000L, 5000000L,
+            10000000L, 25000000L, 50000000L,
+            100000000L, 250000000L, 500000000L,
+            1000000000L, 2500000000L, 5000000000L,
+            10000000000L, 30000000000L, 60000000000L
+    };
+
+    private final Map<Endpoint, Meters> meters;
+
+    public OWMMetrics() {
+        Map<Endpoint, Meters> meters = new EnumMap<Endpoint, Meters>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            meters.put(endpoint, new Meters());
+        }
+        this.meters = Collections.unmodifiableMap(meters);
+    }
+
+    /**
+     * @return Metrics as they are now; later requests are not reflected in it.
+     */
+    public Snapshot getSnapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * @return Metrics as they are now, in Prometheus' text format.
+     */
+    public String toPrometheus() {
+        return getSnapshot().toPrometheus();
+    }
+
+    /*
+    Recording, by OpenWeatherMap
+     */
+
+    void recordLatency(Endpoint endpoint, String outcome, long nanos) {
+        Meters meters = this.meters.get(endpoint);
+        meters.latency.record(nanos);
+        Histogram latency = meters.latencyByOutcome.get(outcome);
+        if (latency == null) {
+            Histogram added = new Histogram();
+            latency = meters.latencyByOutcome.putIfAbsent(outcome, added);
+            if (latency == null) {
+                latency = added;
+            }
+        }
+        latency.record(nanos);
+    }
+
+    void recordTransfer(Endpoint endpoint, long wireBytes, long decompressedBytes, long decompressionNanos) {
+        Meters meters = this.meters.get(endpoint);
+        if (decompressionNanos > 0) {
+            meters.decompression.record(decompressionNanos);
+        }
+        meters.wireBytes.addAndGet(wireBytes);
+        meters.decompressedBytes.addAndGet(decompressedBytes);
+    }
+
+    void recordParse(Endpoint endpoint, long nanos) {
+        this.meters.get(endpoint).parse.record(nanos);
+    }
+
+    void recordError(Endpoint endpoint, String error) {
+        ConcurrentMap<String, AtomicLong> errors = this.meters.get(endpoint).errors;
+        AtomicLong count = errors.get(error);
+        if (count == null) {
+            AtomicLong added = new AtomicLong();
+            count = errors.putIfAbsent(error, added);
+            if (count == null) {
+                count = added;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Endpoints of OWM.org, for which metrics are kept apart.
+     *
+     * @since 2.5.0.6
+     */
+    public static enum Endpoint {
+        CURRENT_WEATHER("current"),
+        HOURLY_FORECAST("hourly"),
+        DAILY_FORECAST("daily");
+
+        private final String label;
+
+        private Endpoint(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @return Name of the endpoint, as labelled in Prometheus' text format.
+         */
+        public String getLabel() {
+            return this.label;
+        }
+    }
+
+    /**
+     * Meters of an endpoint.
+     */
+    private static class Meters {
+        private final Histogram latency = new Histogram();
+        private final ConcurrentMap<String, Histogram> latencyByOutcome = new ConcurrentHashMap<String, Histogram>();
+        private final Histogram decompression = new Histogram();
+        private final Histogram parse = new Histogram();
+        private final AtomicLong wireBytes = new AtomicLong();
+        private final AtomicLong decompressedBytes = new AtomicLong();
+        private final ConcurrentMap<String, AtomicLong> errors = new ConcurrentHashMap<String, AtomicLong>();
+    }
+
+    /**
+     * Histogram of durations, with fixed buckets.
+     */
+    private static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+        private final AtomicLong sum = new AtomicLong();
+
+        private void record(long nanos) {
+            int bucket = 0;
+            while (bucket < BUCKETS.length && nanos > BUCKETS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            sum.addAndGet(nanos);
+        }
+    }
+
+    /**
+     * Counts the bytes read through a stream, and the time spent reading them.
+     */
+    static class MeteredInputStream extends FilterInputStream {
+        private long bytes;
+        private long nanos;
+
+        MeteredInputStream(InputStream in) {
+            super(in);
+        }
+
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int read = super.read();
+            nanos += System.nanoTime() - start;
+            if (read >= 0) {
+                bytes++;
+            }
+            return read;
+        }
+
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            int read = super.read(buffer, offset, length);
+            nanos += System.nanoTime() - start;
+            if (read > 0) {
+                bytes += read;
+            }
+            return read;
+        }
+
+        long getBytes() {
+            return this.bytes;
+        }
+
+        long getNanos() {
+            return this.nanos;
+        }
+    }
+
+    /**
+     * <p>
+     * Metrics as they were when asked for.
+     * </p>
+     *
+     * @since 2.5.0.6
+     */
+    public static class Snapshot {
+        private final Map<Endpoint, EndpointSnapshot> endpoints;
+
+        private Snapshot(OWMMetrics metrics) {
+            Map<Endpoint, EndpointSnapshot> endpoints = new EnumMap<Endpoint, EndpointSnapshot>(Endpoint.class);
+            for (Map.Entry<Endpoint, Meters> entry : metrics.meters.entrySet()) {
+                endpoints.put(entry.getKey(), new EndpointSnapshot(entry.getValue()));
+            }
+            this.endpoints = Collections.unmodifiableMap(endpoints);
+        }
+
+        public EndpointSnapshot getEndpoint(Endpoint endpoint) {
+            return this.endpoints.get(endpoint);
+        }
+
+        /**
+         * @return Metrics in Prometheus' text format.
+         */
+        public String toPrometheus() {
+            StringBuilder text = new StringBuilder(8 * 1024);
+
+            family(text, "owm_request_duration_seconds", "histogram",
+                    "Time taken by requests to OWM.org, from looking the host up to reading the response or failing, by outcome.");
+            for (Map.Entry<Endpoint, EndpointSnapshot> entry : endpoints.entrySet()) {
+                for (Map.Entry<String, HistogramSnapshot> latency : entry.getValue().latencyByOutcome.entrySet()) {
+                    latency.getValue().appendTo(text, "owm_request_duration_seconds", entry.getKey(),
+                            "outcome=\"" + latency.getKey() + "\"");
+                }
+            }
+            family(text, "owm_decompression_duration_seconds", "histogram",
+                    "Time spent decompressing compressed responses.");
+            for (Map.Entry<Endpoint, EndpointSnapshot> entry : endpoints.entrySet()) {
+                entry.getValue().decompression.appendTo(text, "owm_decompression_duration_seconds", entry.getKey(), null);
+            }
+            family(text, "owm_parse_duration_seconds", "histogram",
+                    "Time spent parsing responses.");
+            for (Map.Entry<Endpoint, EndpointSnapshot> entry : endpoints.entrySet()) {
+                entry.getValue().parse.appendTo(text, "owm_parse_duration_seconds", entry.getKey(), null);
+            }
+
+            family(text, "owm_wire_bytes_total", "counter",
+                    "Bytes of responses as received, possibly compressed.");
+            for (Map.Entry<Endpoint, EndpointSnapshot> entry : endpoints.entrySet()) {
+                sample(text, "owm_wire_bytes_total", entry.getKey(), null, entry.getValue().wireBytes);
+            }
+            family(text, "owm_decompressed_bytes_total", "counter",
+                    "Bytes of responses after decompression.");
+            for (Map.Entry<Endpoint, EndpointSnapshot> entry : endpoints.entrySet()) {
+                sample(text, "owm_decompressed_bytes_total", entry.getKey(), null, entry.getValue().decompressedBytes);
+            }
+
+            family(text, "owm_errors_total", "counter",
+                    "Failed requests, by HTTP status, or as timed out or failed without a response.");
+            for (Map.Entry<Endpoint, EndpointSnapshot> entry : endpoints.entrySet()) {
+                for (Map.Entry<String, Long> error : entry.getValue().errors.entrySet()) {
+                    sample(text, "owm_errors_total", entry.getKey(),
+                            "status=\"" + error.getKey() + "\"", error.getValue());
+                }
+            }
+
+            return text.toString();
+        }
+
+        private static void family(StringBuilder text, String name, String type, String help) {
+            text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+
+        private static void sample(StringBuilder text, String name, Endpoint endpoint, String label, Object value) {
+            text.append(name).append("{endpoint=\"").append(endpoint.getLabel()).append('"');
+            if (label != null) {
+                text.append(',').append(label);
+            }
+            text.append("} ").append(value).append('\n');
+        }
+    }
+
+    /**
+     * <p>
+     * Metrics of an endpoint, as they were when asked for.
+     * </p>
+     *
+     * @since 2.5.0.6
+     */
+    public static class EndpointSnapshot {
+        private final HistogramSnapshot latency;
+        private final Map<String, HistogramSnapshot> latencyByOutcome;
+        private final HistogramSnapshot decompression;
+        private final HistogramSnapshot parse;
+        private final long wireBytes;
+        private final long decompressedBytes;
+        private final Map<String, Long> errors;
+
+        private EndpointSnapshot(Meters meters) {
+            this.latency = new HistogramSnapshot(meters.latency);
+            Map<String, HistogramSnapshot> latencyByOutcome = new TreeMap<String, HistogramSnapshot>();
+            for (Map.Entry<String, Histogram> entry : meters.latencyByOutcome.entrySet()) {
+                latencyByOutcome.put(entry.getKey(), new HistogramSnapshot(entry.getValue()));
+            }
+            this.latencyByOutcome = Collections.unmodifiableMap(latencyByOutcome);
+            this.decompression = new HistogramSnapshot(meters.decompression);
+            this.parse = new HistogramSnapshot(meters.parse);
+            this.wireBytes = meters.wireBytes.get();
+            this.decompressedBytes = meters.decompressedBytes.get();
+
+            Map<String, Long> errors = new TreeMap<String, Long>();
+            for (Map.Entry<String, AtomicLong> entry : meters.errors.entrySet()) {
+                errors.put(entry.getKey(), entry.getValue().get());
+            }
+            this.errors = Collections.unmodifiableMap(errors);
+        }
+
+        /**
+         * @return Time taken by requests, from looking the host up to reading the response or
+         * failing, whatever their outcome.
+         */
+        public HistogramSnapshot getLatency() {
+            return this.latency;
+        }
+
+        /**
+         * @return Time taken by requests by outcome, any of the <code>OUTCOME_</code> constants
+         * of {@link OWMTracer} (e.g., "timeout").
+         */
+        public Map<String, HistogramSnapshot> getLatencyByOutcome() {
+            return this.latencyByOutcome;
+        }
+
+        /**
+         * @return Time spent decompressing responses, which is part of their latency.
+         */
+        public HistogramSnapshot getDecompression() {
+            return this.decompression;
+        }
+
+        /**
+         * @return Time spent parsing responses.
+         */
+        public HistogramSnapshot getParse() {
+            return this.parse;
+        }
+
+        /**
+         * @return Bytes of responses as received, possibly compressed.
+         */
+        public long getWireBytes() {
+            return this.wireBytes;
+        }
+
+        /**
+         * @return Bytes of responses after decompression.
+         */
+        public long getDecompressedBytes() {
+            return this.decompressedBytes;
+        }
+
+        /**
+         * @return Count of failed requests by HTTP status (e.g., "404"), or by
+         * {@link #ERROR_TIMEOUT} and {@link #ERROR_IO}.
+         */
+        public Map<String, Long> getErrors() {
+            return this.errors;
+        }
+    }
+
+    /**
+     * <p>
+     * Histogram of durations, as it was when asked for.
+     * </p>
+     *
+     * @since 2.5.0.6
+     */
+    public static class HistogramSnapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+
+        private HistogramSnapshot(Histogram histogram) {
+            this.buckets = new long[BUCKETS.length + 1];
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram.buckets.get(i);
+                count += buckets[i];
+            }
+            this.count = count;
+            this.sum = histogram.sum.get();
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * @return Sum of the durations, in nanoseconds.
+         */
+        public long getSum() {
+            return this.sum;
+        }
+
+        /**
+         * @param quantile Quantile, from 0 to 1 (e.g., 0.99)
+         * @return Upper bound (in nanoseconds) of the bucket holding the quantile,
+         * <code>Long.MAX_VALUE</code> if beyond the last bucket, or 0 if nothing was recorded.
+         */
+        public long getQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return BUCKETS[i];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private void appendTo(StringBuilder text, String name, Endpoint endpoint, String label) {
+            String labels = "{endpoint=\"" + endpoint.getLabel() + '"' + ((label != null) ? "," + label : "");
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i];
+                String le = (i < BUCKETS.length) ? seconds(BUCKETS[i]) : "+Inf";
+                text.append(name).append("_bucket").append(labels)
+                        .append(",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+            }
+            text.append(name).append("_sum").append(labels).append("} ")
+                    .append(seconds(sum)).append('\n');
+            text.append(name).append("_count").append(labels).append("} ")
+                    .append(cumulative).append('\n');
+        }
+
+        private static String seconds(long nanos) {
+            String text = String.format(Locale.US, "%.9f", nanos / 1e9);
+            int end = text.length();
+            while (text.charAt(end - 1) == '0') {
+                end--;
+            }
+            if (text.charAt(end - 1) == '.') {
+                end--;
+            }
+            return text.substring(0, end);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+/**
+ * <p>
+ * Receives the phases of requests to OWM.org as they happen, e.g., to record them as
+ * events of a profiler. A phase with a duration is told of at its start, which returns
+ * an object of the tracer's choice, and at its end, which is given that object back.
+ * </p>
+ * <p>
+ * Implementations must be thread-safe and quick, as they're called on the requesting
+ * threads. Without a tracer set, which is the default, nothing is traced.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.OpenWeatherMap#setTracer(OWMTracer)
+ * @since 2.5.0.6
+ */
+public interface OWMTracer {
+    /**
+     * Outcome of a request which got a response with HTTP status 200.
+     */
+    String OUTCOME_OK = "ok";
+
+    /**
+     * Outcome of a request which got a response with any other HTTP status.
+     */
+    String OUTCOME_HTTP_ERROR = "http-error";
+
+    /**
+     * Outcome of a request which did not complete in time.
+     */
+    String OUTCOME_TIMEOUT = "timeout";
+
+    /**
+     * Outcome of a request which failed without a response.
+     */
+    String OUTCOME_IO_ERROR = "io-error";
+
+    /**
+     * @param endpoint Endpoint requested
+     * @param city     City requested, as in the address (e.g., "id=1283240" or "lat=27.7&lon=85.3")
+     * @return Object to be given back when the request ends, or <code>null</code>
+     */
+    Object requestStarted(OWMMetrics.Endpoint endpoint, String city);
+
+    /**
+     * @param request           Object returned when the request started
+     * @param responseCode      HTTP status of the response, or -1 if there was none
+     * @param wireBytes         Bytes of the response as received, possibly compressed
+     * @param decompressedBytes Bytes of the response after decompression
+     * @param outcome           Any of the <code>OUTCOME_</code> constants
+     */
+    void requestEnded(Object request, int responseCode, long wireBytes, long decompressedBytes, String outcome);
+
+    /**
+     * @param endpoint Endpoint requested
+     * @param city     City requested, as in the address
+     * @param cache    Name of the cache looked up, e.g., "widened-daily" or "parsed"
+     * @param hit      <code>true</code> if the data was found in the cache, otherwise <code>false</code>
+     */
+    void cacheLookedUp(OWMMetrics.Endpoint endpoint, String city, String cache, boolean hit);
+
+    /**
+     * @param endpoint Endpoint requested
+     * @param city     City requested, as in the address
+     * @param nanos    Time (in nanoseconds) taken to pick a key from the pool of API keys
+     */
+    void apiKeyAcquired(OWMMetrics.Endpoint endpoint, String city, long nanos);
+
+    /**
+     * @param endpoint          Endpoint requested
+     * @param city              City requested, as in the address
+     * @param wireBytes         Bytes of the response as received
+     * @param decompressedBytes Bytes of the response after decompression
+     * @param nanos             Time (in nanoseconds) spent decompressing, while the response was read
+     */
+    void decompressed(OWMMetrics.Endpoint endpoint, String city, long wireBytes, long decompressedBytes, long nanos);
+
+    /**
+     * @param endpoint Endpoint of the response
+     * @param city     City requested, as in the address
+     * @return Object to be given back when parsing ends, or <code>null</code>
+     */
+    Object parseStarted(OWMMetrics.Endpoint endpoint, String city);
+
+    /**
+     * @param parse Object returned when parsing started
+     * @param chars Length of the response parsed
+     * @param valid <code>true</code> if the response parsed is valid, otherwise <code>false</code>
+     */
+    void parseEnded(Object parse, int chars, boolean valid);
+}
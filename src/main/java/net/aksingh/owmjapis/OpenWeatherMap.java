@@ -28,8 +28,34 @@ import org.json.JSONObject;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
@@ -49,6 +75,12 @@ import java.util.zip.InflaterInputStream;
  * <code>OpenWeatherMap.org owm = new OpenWeatherMap(your-units, "your-api-key");</code><br>
  * <code>OpenWeatherMap.org owm = new OpenWeatherMap(your-units, your-language, "your-api-key");</code>
  * </p>
+ * <p>
+ * A request which fails throws an unchecked {@link OWMException}: an {@link OWMHttpException}
+ * with the status and error from OWM.org, be it an HTTP status or the response code in the
+ * body, an {@link OWMConnectionException} if there was
+ * no response, or an {@link OWMTimeoutException} if it did not complete in time.
+ * </p>
  *
  * @author Ashutosh Kumar Singh <me@aksingh.net>
  * @version 2015-01-17
@@ -75,12 +107,36 @@ public class OpenWeatherMap {
     private static final String PARAM_APPID = "appId=";
     private static final String PARAM_LANG = "lang=";
 
+    /*
+    Limits of OWM.org
+     */
+    private static final byte DAILY_FORECAST_MAX_COUNT = 16;
+    private static final long DAILY_FORECAST_WIDENING_MAX_AGE = 10 * 60 * 1000L;
+    private static final int DAILY_FORECAST_WIDENING_CAPACITY = 10000;
+    private static final int PARSED_RESPONSES_CAPACITY = 10000;
+    private static final long FETCH_ALL_TIMEOUT = 30 * 1000L;
+    private static final long REQUEST_TIMEOUT = 60 * 1000L;
+    private static final long NOT_FOUND_MAX_AGE = 60 * 1000L;
+    private static final int NOT_FOUND_CAPACITY = 10000;
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
     /*
     Instance Variables
      */
-    private final OWMAddress owmAddress;
+    // configuration is held as immutable snapshots, swapped atomically by the setters
+    private final AtomicReference<OWMAddress> owmAddress;
+    private final AtomicReference<OWMProxy> owmProxy;
     private final OWMResponse owmResponse;
-    private final OWMProxy owmProxy;
+    private final OWMMetrics metrics;
+    private volatile WidenedDailyForecasts widenedDailyForecasts;
+    private volatile ParsedResponses parsedResponses;
+    private volatile NotFoundResponses notFoundResponses = new NotFoundResponses(NOT_FOUND_MAX_AGE, NOT_FOUND_CAPACITY);
+    private volatile ExecutorService executor;
+    private volatile long timeout = REQUEST_TIMEOUT;
+    private volatile boolean provenance;
+    private volatile OWMTracer tracer;
 
     /**
      * Constructor
@@ -116,32 +172,49 @@ public class OpenWeatherMap {
      * @see <a href="http://openweathermap.org/appid">OWM.org's API Key</a>
      */
     public OpenWeatherMap(Units units, Language lang, String apiKey) {
-        this.owmAddress = new OWMAddress(units, lang, apiKey);
-        this.owmProxy = new OWMProxy(null, Integer.MIN_VALUE, null, null);
-        this.owmResponse = new OWMResponse(owmAddress, owmProxy);
+        this.owmAddress = new AtomicReference<OWMAddress>(new OWMAddress(units, lang, apiKey));
+        this.owmProxy = new AtomicReference<OWMProxy>(new OWMProxy());
+        this.metrics = new OWMMetrics();
+        this.owmResponse = new OWMResponse(owmProxy, metrics);
     }
 
     /*
     Getters
      */
+
+    /**
+     * @return Snapshot of the current address configuration. It is immutable,
+     * so later calls to the setters are not reflected in it.
+     */
     public OWMAddress getOwmAddressInstance() {
-        return owmAddress;
+        return owmAddress.get();
+    }
+
+    /**
+     * @return Metrics of the requests made by this instance, and of parsing their responses.
+     */
+    public OWMMetrics getMetrics() {
+        return this.metrics;
     }
 
     public String getApiKey() {
-        return owmAddress.getAppId();
+        return owmAddress.get().getAppId();
+    }
+
+    public String getBaseUrl() {
+        return owmAddress.get().getBaseUrl();
     }
 
     public Units getUnits() {
-        return owmAddress.getUnits();
+        return owmAddress.get().getUnits();
     }
 
     public String getMode() {
-        return owmAddress.getMode();
+        return owmAddress.get().getMode();
     }
 
     public Language getLang() {
-        return owmAddress.getLang();
+        return owmAddress.get().getLang();
     }
 
     /*
@@ -155,7 +228,10 @@ public class OpenWeatherMap {
      * @see net.aksingh.owmjapis.OpenWeatherMap.Units
      */
     public void setUnits(Units units) {
-        owmAddress.setUnits(units);
+        OWMAddress current;
+        do {
+            current = owmAddress.get();
+        } while (!owmAddress.compareAndSet(current, current.withUnits(units)));
     }
 
     /**
@@ -165,7 +241,52 @@ public class OpenWeatherMap {
      * @see <a href="http://openweathermap.org/appid">OWM.org's API Key</a>
      */
     public void setApiKey(String appId) {
-        owmAddress.setAppId(appId);
+        OWMAddress current;
+        do {
+            current = owmAddress.get();
+        } while (!owmAddress.compareAndSet(current, current.withAppId(appId)));
+    }
+
+    /**
+     * Set a pool of API keys for getting data from OWM.org. Each request then uses
+     * the least-loaded key of the pool, instead of the API key set otherwise, and is
+     * made once more with the next key if OWM.org rejects the first one as unauthorized
+     * or rate limited. While the pool is empty, the API key set otherwise is used.
+     * Addresses given by {@link #getOwmAddressInstance()} then end with an empty
+     * appId; use {@link ApiKeyPool#acquire()} to fill it when making requests yourself.
+     *
+     * @param apiKeyPool Pool of API keys, or <code>null</code> to use the single API key again
+     * @see net.aksingh.owmjapis.ApiKeyPool
+     */
+    public void setApiKeyPool(ApiKeyPool apiKeyPool) {
+        OWMAddress current;
+        do {
+            current = owmAddress.get();
+        } while (!owmAddress.compareAndSet(current, current.withApiKeyPool(apiKeyPool)));
+    }
+
+    /**
+     * Set the base address of OWM.org's API, e.g., to point at a mirror or a local stand-in
+     * for testing. By default, it's <code>http://api.openweathermap.org/data/2.5/</code>.
+     *
+     * @param baseUrl Base address, ending with "/", to which "weather?", "forecast?" and
+     *                "forecast/daily?" are appended
+     * @throws IllegalArgumentException Base address should be a valid URL, ending with "/".
+     */
+    public void setBaseUrl(String baseUrl)
+            throws IllegalArgumentException {
+        if (baseUrl == null || !baseUrl.endsWith("/")) {
+            throw new IllegalArgumentException("Base address must end with \"/\".");
+        }
+        try {
+            new URL(baseUrl);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Base address is not a valid URL: " + e.getMessage());
+        }
+        OWMAddress current;
+        do {
+            current = owmAddress.get();
+        } while (!owmAddress.compareAndSet(current, current.withBaseUrl(baseUrl)));
     }
 
     /**
@@ -176,7 +297,10 @@ public class OpenWeatherMap {
      * @see <a href="http://openweathermap.org/current#multi">OWM.org's Multilingual support</a>
      */
     public void setLang(Language lang) {
-        owmAddress.setLang(lang);
+        OWMAddress current;
+        do {
+            current = owmAddress.get();
+        } while (!owmAddress.compareAndSet(current, current.withLang(lang)));
     }
 
     /**
@@ -186,10 +310,7 @@ public class OpenWeatherMap {
      * @param port Port address of the proxy
      */
     public void setProxy(String ip, int port) {
-        owmProxy.setIp(ip);
-        owmProxy.setPort(port);
-        owmProxy.setUser(null);
-        owmProxy.setPass(null);
+        owmProxy.set(new OWMProxy().withServer(ip, port, null, null));
     }
 
     /**
@@ -201,213 +322,1130 @@ public class OpenWeatherMap {
      * @param pass Password for the proxy if required
      */
     public void setProxy(String ip, int port, String user, String pass) {
-        owmProxy.setIp(ip);
-        owmProxy.setPort(port);
-        owmProxy.setUser(user);
-        owmProxy.setPass(pass);
+        owmProxy.set(new OWMProxy().withServer(ip, port, user, pass));
+    }
+
+    /**
+     * Add a proxy to the ones used for getting data from OWM.org.
+     * Requests rotate through the added proxies in turn.
+     *
+     * @param ip IP address of the proxy
+     * @param port Port address of the proxy
+     * @see #setProxy(String, int)
+     */
+    public void addProxy(String ip, int port) {
+        addProxy(ip, port, null, null);
+    }
+
+    /**
+     * Add a proxy, with its authentication details, to the ones used for getting data from OWM.org.
+     * Requests rotate through the added proxies in turn.
+     *
+     * @param ip IP address of the proxy
+     * @param port Port address of the proxy
+     * @param user User name for the proxy if required
+     * @param pass Password for the proxy if required
+     * @see #setProxy(String, int, String, String)
+     */
+    public void addProxy(String ip, int port, String user, String pass) {
+        OWMProxy current;
+        do {
+            current = owmProxy.get();
+        } while (!owmProxy.compareAndSet(current, current.withServer(ip, port, user, pass)));
+    }
+
+    /**
+     * Stop using proxies for getting data from OWM.org
+     */
+    public void removeProxies() {
+        owmProxy.set(new OWMProxy());
+    }
+
+    /**
+     * Set daily forecast widening on or off. When on, daily forecasts are always
+     * fetched for the maximum count supported by OWM.org and cached per location for
+     * 10 minutes, and any smaller count is served as a view over the cached forecast.
+     * The raw response of such a view is the one of the widened forecast, i.e., it
+     * holds the forecasts for the maximum count, not only the <code>count</code> asked for.
+     *
+     * @param widen <code>true</code> to turn widening on, <code>false</code> to turn it off
+     */
+    public void setDailyForecastWidening(boolean widen) {
+        setDailyForecastWidening(widen, DAILY_FORECAST_WIDENING_MAX_AGE);
+    }
+
+    /**
+     * Set daily forecast widening on or off.
+     *
+     * @param widen  <code>true</code> to turn widening on, <code>false</code> to turn it off
+     * @param maxAge Time (in milliseconds) for which a widened forecast is served from cache
+     * @see #setDailyForecastWidening(boolean)
+     */
+    public void setDailyForecastWidening(boolean widen, long maxAge) {
+        this.widenedDailyForecasts = widen ? new WidenedDailyForecasts(maxAge, DAILY_FORECAST_WIDENING_CAPACITY) : null;
+    }
+
+    /**
+     * Set reuse of parsed data on or off. When on, a hash of every response is kept per
+     * address, and when an address gives the same response again, as OWM.org does until
+     * it updates its data, the data parsed before is returned instead of parsing it again.
+     * Up to 10,000 addresses are kept, the ones used least recently making room for new ones.
+     *
+     * @param reuse <code>true</code> to turn reuse on, <code>false</code> to turn it off
+     */
+    public void setParsedResponseReuse(boolean reuse) {
+        setParsedResponseReuse(reuse, PARSED_RESPONSES_CAPACITY);
+    }
+
+    /**
+     * Set reuse of parsed data on or off.
+     *
+     * @param reuse    <code>true</code> to turn reuse on, <code>false</code> to turn it off
+     * @param capacity Maximum count of addresses to be kept
+     * @see #setParsedResponseReuse(boolean)
+     */
+    public void setParsedResponseReuse(boolean reuse, int capacity) {
+        this.parsedResponses = reuse ? new ParsedResponses(capacity) : null;
+    }
+
+    /**
+     * @return Count of responses not parsed because they were the same as before,
+     * since reuse of parsed data was last turned on.
+     */
+    public long getParseSkipCount() {
+        ParsedResponses parsed = this.parsedResponses;
+        return (parsed != null) ? parsed.skips.get() : 0;
+    }
+
+    /**
+     * Set caching of "not found" responses on or off. When on, an address for which OWM.org
+     * responds with 404, e.g., as it does not know the city, gets the same error for a minute
+     * without requesting it again. Up to 10,000 addresses are kept. By default, it's on.
+     *
+     * @param cache <code>true</code> to turn caching on, <code>false</code> to turn it off
+     * @see net.aksingh.owmjapis.OWMHttpException
+     */
+    public void setNotFoundCaching(boolean cache) {
+        setNotFoundCaching(cache, NOT_FOUND_MAX_AGE);
+    }
+
+    /**
+     * Set caching of "not found" responses on or off.
+     *
+     * @param cache  <code>true</code> to turn caching on, <code>false</code> to turn it off
+     * @param maxAge Time (in milliseconds) for which a "not found" response is served from cache
+     * @see #setNotFoundCaching(boolean)
+     */
+    public void setNotFoundCaching(boolean cache, long maxAge) {
+        this.notFoundResponses = cache ? new NotFoundResponses(maxAge, NOT_FOUND_CAPACITY) : null;
+    }
+
+    /**
+     * Set the time within which a request to OWM.org must complete, including name lookup,
+     * connecting, reading and decompressing. It is used by the methods not given a timeout
+     * of their own. By default, it's 60 seconds.
+     *
+     * @param timeout Time (in milliseconds) within which a request must complete
+     * @see net.aksingh.owmjapis.OWMTimeoutException
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public long getTimeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Set whether responses should carry their provenance: where they came from, when they
+     * were fetched, the time spent on the network and on parsing, their size, and the API key
+     * used. Nothing is recorded while it's off, which is the default.
+     * Note that a response reused as unchanged keeps the provenance of when it was parsed.
+     *
+     * @param provenance <code>true</code> to attach provenance to responses, otherwise <code>false</code>
+     * @see net.aksingh.owmjapis.Provenance
+     * @see #setParsedResponseReuse(boolean)
+     */
+    public void setProvenance(boolean provenance) {
+        this.provenance = provenance;
+    }
+
+    public boolean isProvenance() {
+        return this.provenance;
+    }
+
+    /**
+     * Set the tracer to be told of the phases of requests, e.g., to record them as events
+     * of a profiler. By default, there's none, and nothing is traced.
+     *
+     * @param tracer Tracer, or <code>null</code> to stop tracing
+     * @see net.aksingh.owmjapis.OWMTracer
+     */
+    public void setTracer(OWMTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public OWMTracer getTracer() {
+        return this.tracer;
+    }
+
+    /**
+     * Set the cassette to record requests into, or to replay them from. While replaying,
+     * no request is made to OWM.org, and so none is counted in the metrics, or traced.
+     *
+     * @param cassette Cassette, or <code>null</code> to make requests as usual
+     * @see net.aksingh.owmjapis.OWMCassette
+     */
+    public void setCassette(OWMCassette cassette) {
+        this.owmResponse.cassette = cassette;
+    }
+
+    public OWMCassette getCassette() {
+        return this.owmResponse.cassette;
+    }
+
+    private static long deadlineAfter(long timeout) {
+        long now = System.currentTimeMillis();
+        return (timeout > Long.MAX_VALUE - now) ? Long.MAX_VALUE : now + timeout;
+    }
+
+    /**
+     * Set the executor for requests made in parallel, like the ones of
+     * {@link #fetchAll(long, byte)}, and for parsing batches of responses, like
+     * {@link #parseCurrentWeatherBatch(List)}. By default, a pool of daemon threads is created when first needed.
+     *
+     * @param executor Executor for requests and parsing in parallel
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    private ExecutorService getExecutor() {
+        ExecutorService executor = this.executor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.executor;
+                if (executor == null) {
+                    executor = Executors.newCachedThreadPool(new ThreadFactory() {
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "owm-fetch");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                    this.executor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Fetches current weather, hourly forecast and daily forecast of a city in parallel,
+     * waiting for them up to 30 seconds.
+     *
+     * @param cityCode Code of the city
+     * @param count    Count of days to be forecasted
+     * @return Bundle of the three, each with its own status
+     * @see #fetchAll(long, byte, long)
+     */
+    public WeatherBundle fetchAll(long cityCode, byte count) {
+        return fetchAll(cityCode, count, FETCH_ALL_TIMEOUT);
+    }
+
+    /**
+     * Fetches current weather, hourly forecast and daily forecast of a city in parallel.
+     * Returns as soon as all three have arrived, or when the timeout expires, whichever is first;
+     * the ones not arrived by then are marked as timed out.
+     *
+     * @param cityCode Code of the city
+     * @param count    Count of days to be forecasted
+     * @param timeout  Time (in milliseconds) to wait for all three together
+     * @return Bundle of the three, each with its own status
+     */
+    public WeatherBundle fetchAll(final long cityCode, final byte count, long timeout) {
+        final long deadline = deadlineAfter(timeout);
+        ExecutorService executor = getExecutor();
+
+        // the requests themselves are bound by the deadline too, so they don't outlive the wait for them
+        Future<CurrentWeather> current = executor.submit(new Callable<CurrentWeather>() {
+            public CurrentWeather call() {
+                return currentWeatherByCityCode(cityCode, deadline - System.currentTimeMillis());
+            }
+        });
+        Future<HourlyForecast> hourly = executor.submit(new Callable<HourlyForecast>() {
+            public HourlyForecast call() {
+                return hourlyForecastByCityCode(cityCode, deadline - System.currentTimeMillis());
+            }
+        });
+        Future<DailyForecast> daily = executor.submit(new Callable<DailyForecast>() {
+            public DailyForecast call() {
+                return dailyForecastByCityCode(cityCode, count, deadline - System.currentTimeMillis());
+            }
+        });
+
+        return new WeatherBundle(cityCode,
+                WeatherBundle.Part.await(current, deadline),
+                WeatherBundle.Part.await(hourly, deadline),
+                WeatherBundle.Part.await(daily, deadline));
     }
 
     public CurrentWeather currentWeatherByCityName(String cityName)
             throws IOException, JSONException {
-        String response = owmResponse.currentWeatherByCityName(cityName);
-        return this.currentWeatherFromRawResponse(response);
+        return this.currentWeatherByCityName(cityName, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public CurrentWeather currentWeatherByCityName(String cityName, long timeout)
+            throws IOException, JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.currentWeather(snapshot, snapshot.currentWeatherByCityName(cityName), deadline);
     }
 
     public CurrentWeather currentWeatherByCityName(String cityName, String countryCode)
             throws IOException, JSONException {
-        String response = owmResponse.currentWeatherByCityName(cityName, countryCode);
-        return this.currentWeatherFromRawResponse(response);
+        return this.currentWeatherByCityName(cityName, countryCode, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public CurrentWeather currentWeatherByCityName(String cityName, String countryCode, long timeout)
+            throws IOException, JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.currentWeather(snapshot, snapshot.currentWeatherByCityName(cityName, countryCode), deadline);
     }
 
     public CurrentWeather currentWeatherByCityCode(long cityCode)
             throws JSONException {
-        String response = owmResponse.currentWeatherByCityCode(cityCode);
-        return this.currentWeatherFromRawResponse(response);
+        return this.currentWeatherByCityCode(cityCode, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public CurrentWeather currentWeatherByCityCode(long cityCode, long timeout)
+            throws JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.currentWeather(snapshot, snapshot.currentWeatherByCityCode(cityCode), deadline);
     }
 
     public CurrentWeather currentWeatherByCoordinates(float latitude, float longitude)
             throws JSONException {
-        String response = owmResponse.currentWeatherByCoordinates(latitude, longitude);
-        return this.currentWeatherFromRawResponse(response);
+        return this.currentWeatherByCoordinates(latitude, longitude, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public CurrentWeather currentWeatherByCoordinates(float latitude, float longitude, long timeout)
+            throws JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.currentWeather(snapshot, snapshot.currentWeatherByCoordinates(latitude, longitude), deadline);
     }
 
     public CurrentWeather currentWeatherFromRawResponse(String response)
             throws JSONException {
+        long start = System.nanoTime();
         JSONObject jsonObj = (response != null) ? new JSONObject(response) : null;
-        return new CurrentWeather(jsonObj);
+        CurrentWeather parsed = new CurrentWeather(jsonObj);
+        metrics.recordParse(OWMMetrics.Endpoint.CURRENT_WEATHER, System.nanoTime() - start);
+        return parsed;
     }
 
     public HourlyForecast hourlyForecastByCityName(String cityName)
             throws IOException, JSONException {
-        String response = owmResponse.hourlyForecastByCityName(cityName);
-        return this.hourlyForecastFromRawResponse(response);
+        return this.hourlyForecastByCityName(cityName, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public HourlyForecast hourlyForecastByCityName(String cityName, long timeout)
+            throws IOException, JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.hourlyForecast(snapshot, snapshot.hourlyForecastByCityName(cityName), deadline);
     }
 
     public HourlyForecast hourlyForecastByCityName(String cityName, String countryCode)
             throws IOException, JSONException {
-        String response = owmResponse.hourlyForecastByCityName(cityName, countryCode);
-        return this.hourlyForecastFromRawResponse(response);
+        return this.hourlyForecastByCityName(cityName, countryCode, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public HourlyForecast hourlyForecastByCityName(String cityName, String countryCode, long timeout)
+            throws IOException, JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.hourlyForecast(snapshot, snapshot.hourlyForecastByCityName(cityName, countryCode), deadline);
     }
 
     public HourlyForecast hourlyForecastByCityCode(long cityCode)
             throws JSONException {
-        String response = owmResponse.hourlyForecastByCityCode(cityCode);
-        return this.hourlyForecastFromRawResponse(response);
+        return this.hourlyForecastByCityCode(cityCode, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public HourlyForecast hourlyForecastByCityCode(long cityCode, long timeout)
+            throws JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.hourlyForecast(snapshot, snapshot.hourlyForecastByCityCode(cityCode), deadline);
     }
 
     public HourlyForecast hourlyForecastByCoordinates(float latitude, float longitude)
             throws JSONException {
-        String response = owmResponse.hourlyForecastByCoordinates(latitude, longitude);
-        return this.hourlyForecastFromRawResponse(response);
+        return this.hourlyForecastByCoordinates(latitude, longitude, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public HourlyForecast hourlyForecastByCoordinates(float latitude, float longitude, long timeout)
+            throws JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        return this.hourlyForecast(snapshot, snapshot.hourlyForecastByCoordinates(latitude, longitude), deadline);
     }
 
     public HourlyForecast hourlyForecastFromRawResponse(String response)
             throws JSONException {
+        long start = System.nanoTime();
         JSONObject jsonObj = (response != null) ? new JSONObject(response) : null;
-        return new HourlyForecast(jsonObj);
+        HourlyForecast parsed = new HourlyForecast(jsonObj);
+        metrics.recordParse(OWMMetrics.Endpoint.HOURLY_FORECAST, System.nanoTime() - start);
+        return parsed;
     }
 
     public DailyForecast dailyForecastByCityName(String cityName, byte count)
             throws IOException, JSONException {
-        String response = owmResponse.dailyForecastByCityName(cityName, count);
-        return this.dailyForecastFromRawResponse(response);
+        return this.dailyForecastByCityName(cityName, count, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public DailyForecast dailyForecastByCityName(String cityName, byte count, long timeout)
+            throws IOException, JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        WidenedDailyForecasts widened = this.widenedDailyForecasts;
+        if (widened != null) {
+            return widened.get(snapshot, snapshot.dailyForecastByCityName(cityName, DAILY_FORECAST_MAX_COUNT), count, deadline);
+        }
+        return this.dailyForecast(snapshot, snapshot.dailyForecastByCityName(cityName, count), deadline);
     }
 
     public DailyForecast dailyForecastByCityName(String cityName, String countryCode, byte count)
             throws IOException, JSONException {
-        String response = owmResponse.dailyForecastByCityName(cityName, countryCode, count);
-        return this.dailyForecastFromRawResponse(response);
+        return this.dailyForecastByCityName(cityName, countryCode, count, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public DailyForecast dailyForecastByCityName(String cityName, String countryCode, byte count, long timeout)
+            throws IOException, JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        WidenedDailyForecasts widened = this.widenedDailyForecasts;
+        if (widened != null) {
+            return widened.get(snapshot, snapshot.dailyForecastByCityName(cityName, countryCode, DAILY_FORECAST_MAX_COUNT), count, deadline);
+        }
+        return this.dailyForecast(snapshot, snapshot.dailyForecastByCityName(cityName, countryCode, count), deadline);
     }
 
     public DailyForecast dailyForecastByCityCode(long cityCode, byte count)
             throws JSONException {
-        String response = owmResponse.dailyForecastByCityCode(cityCode, count);
-        return this.dailyForecastFromRawResponse(response);
+        return this.dailyForecastByCityCode(cityCode, count, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public DailyForecast dailyForecastByCityCode(long cityCode, byte count, long timeout)
+            throws JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        WidenedDailyForecasts widened = this.widenedDailyForecasts;
+        if (widened != null) {
+            return widened.get(snapshot, snapshot.dailyForecastByCityCode(cityCode, DAILY_FORECAST_MAX_COUNT), count, deadline);
+        }
+        return this.dailyForecast(snapshot, snapshot.dailyForecastByCityCode(cityCode, count), deadline);
     }
 
     public DailyForecast dailyForecastByCoordinates(float latitude, float longitude, byte count)
             throws JSONException {
-        String response = owmResponse.dailyForecastByCoordinates(latitude, longitude, count);
-        return this.dailyForecastFromRawResponse(response);
+        return this.dailyForecastByCoordinates(latitude, longitude, count, this.timeout);
+    }
+
+    /**
+     * @param timeout Time (in milliseconds) within which the request must complete
+     * @throws OWMTimeoutException If the request does not complete in time.
+     */
+    public DailyForecast dailyForecastByCoordinates(float latitude, float longitude, byte count, long timeout)
+            throws JSONException {
+        long deadline = deadlineAfter(timeout);
+        OWMAddress snapshot = owmAddress.get();
+        WidenedDailyForecasts widened = this.widenedDailyForecasts;
+        if (widened != null) {
+            return widened.get(snapshot, snapshot.dailyForecastByCoordinates(latitude, longitude, DAILY_FORECAST_MAX_COUNT), count, deadline);
+        }
+        return this.dailyForecast(snapshot, snapshot.dailyForecastByCoordinates(latitude, longitude, count), deadline);
     }
 
     public DailyForecast dailyForecastFromRawResponse(String response)
             throws JSONException {
+        long start = System.nanoTime();
         JSONObject jsonObj = (response != null) ? new JSONObject(response) : null;
-        return new DailyForecast(jsonObj);
+        DailyForecast parsed = new DailyForecast(jsonObj);
+        metrics.recordParse(OWMMetrics.Endpoint.DAILY_FORECAST, System.nanoTime() - start);
+        return parsed;
+    }
+
+    /**
+     * Parses a batch of raw responses of current weather in parallel, on the executor and the
+     * calling thread. A response failing to parse fails only its own part.
+     *
+     * @param responses Raw responses, as UTF-8
+     * @return Parsed data of each response, in the order of the responses.
+     * @see #setExecutor(ExecutorService)
+     */
+    public List<WeatherBundle.Part<CurrentWeather>> parseCurrentWeatherBatch(List<byte[]> responses) {
+        return parseBatch(responses, OWMMetrics.Endpoint.CURRENT_WEATHER, CurrentWeather.class);
+    }
+
+    /**
+     * Parses a batch of raw responses of hourly forecast in parallel.
+     *
+     * @see #parseCurrentWeatherBatch(List)
+     */
+    public List<WeatherBundle.Part<HourlyForecast>> parseHourlyForecastBatch(List<byte[]> responses) {
+        return parseBatch(responses, OWMMetrics.Endpoint.HOURLY_FORECAST, HourlyForecast.class);
+    }
+
+    /**
+     * Parses a batch of raw responses of daily forecast in parallel.
+     *
+     * @see #parseCurrentWeatherBatch(List)
+     */
+    public List<WeatherBundle.Part<DailyForecast>> parseDailyForecastBatch(List<byte[]> responses) {
+        return parseBatch(responses, OWMMetrics.Endpoint.DAILY_FORECAST, DailyForecast.class);
+    }
+
+    /**
+     * Parses the responses with a worker per processor, each taking the next response not yet
+     * taken, so that workers given quick responses go on to take more of them.
+     */
+    private <T extends AbstractResponse> List<WeatherBundle.Part<T>> parseBatch(final List<byte[]> responses,
+                                                                            final OWMMetrics.Endpoint endpoint,
+                                                                            final Class<T> type) {
+        final int size = responses.size();
+        final List<WeatherBundle.Part<T>> parts =
+                new ArrayList<WeatherBundle.Part<T>>(Collections.<WeatherBundle.Part<T>>nCopies(size, null));
+        final AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(size, Runtime.getRuntime().availableProcessors());
+        final CountDownLatch done = new CountDownLatch(Math.max(workers - 1, 0));
+
+        Runnable worker = new Runnable() {
+            public void run() {
+                for (int i = next.getAndIncrement(); i < size; i = next.getAndIncrement()) {
+                    try {
+                        byte[] response = responses.get(i);
+                        String raw = (response != null) ? new String(response, "UTF-8") : null;
+                        parts.set(i, WeatherBundle.Part.of(type.cast(fromRawResponse(raw, endpoint))));
+                    } catch (Exception e) {
+                        parts.set(i, WeatherBundle.Part.<T>failed(e));
+                    }
+                }
+            }
+        };
+
+        // the calling thread works too, so the batch completes even if the executor is busy
+        ExecutorService executor = getExecutor();
+        for (int i = 1; i < workers; i++) {
+            try {
+                executor.execute(new CountingDown(worker, done));
+            } catch (RejectedExecutionException e) {
+                done.countDown();
+            }
+        }
+        worker.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return parts;
+    }
+
+    private AbstractResponse fromRawResponse(String response, OWMMetrics.Endpoint endpoint)
+            throws JSONException {
+        switch (endpoint) {
+            case HOURLY_FORECAST:
+                return hourlyForecastFromRawResponse(response);
+            case DAILY_FORECAST:
+                return dailyForecastFromRawResponse(response);
+            default:
+                return currentWeatherFromRawResponse(response);
+        }
+    }
+
+    /**
+     * Runs a task, and counts down the latch after it.
+     */
+    private static class CountingDown implements Runnable {
+        private final Runnable task;
+        private final CountDownLatch latch;
+
+        private CountingDown(Runnable task, CountDownLatch latch) {
+            this.task = task;
+            this.latch = latch;
+        }
+
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                latch.countDown();
+            }
+        }
+    }
+
+    /*
+    Fetching and parsing, reusing the previously parsed data if the response is the same
+     */
+    private CurrentWeather currentWeather(OWMAddress snapshot, String address, long deadline)
+            throws JSONException {
+        return fetch(snapshot, address, deadline, OWMMetrics.Endpoint.CURRENT_WEATHER, CurrentWeather.class);
+    }
+
+    private HourlyForecast hourlyForecast(OWMAddress snapshot, String address, long deadline)
+            throws JSONException {
+        return fetch(snapshot, address, deadline, OWMMetrics.Endpoint.HOURLY_FORECAST, HourlyForecast.class);
+    }
+
+    private DailyForecast dailyForecast(OWMAddress snapshot, String address, long deadline)
+            throws JSONException {
+        return fetch(snapshot, address, deadline, OWMMetrics.Endpoint.DAILY_FORECAST, DailyForecast.class);
+    }
+
+    /**
+     * Fetches a response of the endpoint from the address relative to the base address,
+     * for {@link OWMCassette#play}.
+     */
+    AbstractResponse fetch(String relativeAddress, OWMMetrics.Endpoint endpoint)
+            throws JSONException {
+        long deadline = deadlineAfter(getTimeout());
+        OWMAddress snapshot = owmAddress.get();
+        String address = snapshot.getBaseUrl() + relativeAddress;
+        switch (endpoint) {
+            case HOURLY_FORECAST:
+                return hourlyForecast(snapshot, address, deadline);
+            case DAILY_FORECAST:
+                return dailyForecast(snapshot, address, deadline);
+            default:
+                return currentWeather(snapshot, address, deadline);
+        }
+    }
+
+    /**
+     * @param snapshot Configuration the address was built from, which the request keeps to
+     *                 (API key, pool of API keys and base address), whatever the setters do meanwhile
+     */
+    private <T extends AbstractResponse> T fetch(OWMAddress snapshot, String address, long deadline,
+                                                 OWMMetrics.Endpoint endpoint, Class<T> type)
+            throws JSONException {
+        OWMTracer tracer = this.tracer;
+        String city = (tracer != null) ? cityOf(address) : null;
+        Provenance.Builder fetch = this.provenance ? new Provenance.Builder() : null;
+
+        NotFoundResponses notFound = this.notFoundResponses;
+        if (notFound != null) {
+            NotFoundResponses.Entry entry = notFound.get(address);
+            if (tracer != null) {
+                tracer.cacheLookedUp(endpoint, city, "not-found", entry != null);
+            }
+            if (entry != null) {
+                throw new OWMHttpException(HTTP_NOT_FOUND, entry.errorBody, entry.errorMessage, 0);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        String response;
+        try {
+            response = owmResponse.httpGET(snapshot, address, deadline, endpoint, fetch, tracer, city);
+        } catch (OWMHttpException e) {
+            if (notFound != null && e.getResponseCode() == HTTP_NOT_FOUND) {
+                notFound.put(address, e.getErrorBody(), e.getErrorMessage());
+            }
+            throw e;
+        }
+
+        // OWM.org may respond with 200, and the error only in the body
+        int responseCode = (response != null) ? AbstractResponse.scanResponseCode(response) : Integer.MIN_VALUE;
+        if (responseCode != Integer.MIN_VALUE && responseCode != HttpURLConnection.HTTP_OK) {
+            metrics.recordError(endpoint, String.valueOf(responseCode));
+            OWMHttpException e = new OWMHttpException(responseCode, response, System.currentTimeMillis() - start);
+            if (notFound != null && responseCode == HTTP_NOT_FOUND) {
+                notFound.put(address, response, e.getErrorMessage());
+            }
+            throw e;
+        }
+
+        ParsedResponses parsed = this.parsedResponses;
+        if (parsed == null || response == null) {
+            return type.cast(parse(response, endpoint, fetch, tracer, city));
+        }
+
+        long hash = Fnv1a.hash(response);
+        T data = parsed.get(address, hash, type);
+        if (tracer != null) {
+            tracer.cacheLookedUp(endpoint, city, "parsed", data != null);
+        }
+        if (data == null) {
+            data = type.cast(parse(response, endpoint, fetch, tracer, city));
+            parsed.put(address, hash, data);
+        }
+        return data;
+    }
+
+    /**
+     * Parses a response, attaching the provenance being collected, if any.
+     */
+    private AbstractResponse parse(String response, OWMMetrics.Endpoint endpoint, Provenance.Builder fetch,
+                                   OWMTracer tracer, String city)
+            throws JSONException {
+        Object trace = (tracer != null) ? tracer.parseStarted(endpoint, city) : null;
+
+        AbstractResponse data;
+        switch (endpoint) {
+            case CURRENT_WEATHER:
+                data = this.currentWeatherFromRawResponse(response);
+                break;
+            case HOURLY_FORECAST:
+                data = this.hourlyForecastFromRawResponse(response);
+                break;
+            default:
+                data = this.dailyForecastFromRawResponse(response);
+                break;
+        }
+
+        if (tracer != null) {
+            tracer.parseEnded(trace, (response != null) ? response.length() : 0, data.isValid());
+        }
+        if (fetch != null) {
+            fetch.parsed();
+            data.setProvenance(fetch.build());
+        }
+        return data;
+    }
+
+    /**
+     * @return City of an address, as in its query (e.g., "id=1283240" or "lat=27.7&lon=85.3").
+     */
+    private static String cityOf(String address) {
+        int start = address.indexOf('?') + 1;
+        int end = address.indexOf("&" + PARAM_COUNT, start);
+        if (end < 0) {
+            end = address.indexOf("&" + PARAM_MODE, start);
+        }
+        return address.substring(start, (end < 0) ? address.length() : end);
     }
 
     /**
      * Units that can be set for getting data from OWM.org
      *
-     * @since 2.5.0.3
+     * @since 2.5.0.3
+     */
+    public static enum Units {
+        METRIC("metric"),
+        IMPERIAL("imperial");
+
+        private final String unit;
+
+        Units(String unit) {
+            this.unit = unit;
+        }
+    }
+
+    /**
+     * Languages that can be set for getting data from OWM.org
+     *
+     * @since 2.5.0.3
+     */
+    public static enum Language {
+        ENGLISH("en"),
+        RUSSIAN("ru"),
+        ITALIAN("it"),
+        SPANISH("es"),
+        UKRAINIAN("uk"),
+        GERMAN("de"),
+        PORTUGUESE("pt"),
+        ROMANIAN("ro"),
+        POLISH("pl"),
+        FINNISH("fi"),
+        DUTCH("nl"),
+        FRENCH("FR"),
+        BULGARIAN("bg"),
+        SWEDISH("sv"),
+        CHINESE_TRADITIONAL("zh_tw"),
+        CHINESE_SIMPLIFIED("zh"),
+        TURKISH("tr"),
+        CROATIAN("hr"),
+        CATALAN("ca");
+
+        private final String lang;
+
+        Language(String lang) {
+            this.lang = lang;
+        }
+    }
+
+    /**
+     * Caches daily forecasts fetched for the maximum count, and serves smaller counts
+     * as views over them, so that requests differing only in count share one fetch.
+     *
+     * @since 2.5.0.6
+     */
+    private class WidenedDailyForecasts {
+        private final long maxAge;
+        private final int capacity;
+        private final ConcurrentMap<String, Entry> entries;
+
+        private WidenedDailyForecasts(long maxAge, int capacity) {
+            this.maxAge = maxAge;
+            this.capacity = capacity;
+            this.entries = new ConcurrentHashMap<String, Entry>();
+        }
+
+        /**
+         * @param snapshot Configuration the address was built from
+         * @param address  Address of the daily forecast for the maximum count
+         * @param count    Count of forecasts asked for
+         * @param deadline Time by which a fetch must complete
+         * @return Cached forecast if fresh, otherwise newly fetched one; sliced to <code>count</code>
+         */
+        private DailyForecast get(OWMAddress snapshot, String address, byte count, long deadline) {
+            long now = System.currentTimeMillis();
+
+            Entry entry = entries.get(address);
+            boolean fresh = entry != null && entry.expiresAt > now;
+            OWMTracer tracer = OpenWeatherMap.this.tracer;
+            if (tracer != null) {
+                tracer.cacheLookedUp(OWMMetrics.Endpoint.DAILY_FORECAST, cityOf(address), "widened-daily", fresh);
+            }
+            if (!fresh) {
+                DailyForecast forecast = dailyForecast(snapshot, address, deadline);
+                if (!forecast.isValid()) {
+                    return forecast;
+                }
+                entry = new Entry(forecast, now + maxAge);
+                put(address, entry, now);
+                return entry.forecast.slice(count);
+            }
+
+            if (!entry.forecast.hasProvenance()) {
+                return entry.forecast.slice(count);
+            }
+            // a view of its own, as the cached forecast itself must keep its provenance
+            DailyForecast cached = new DailyForecast(entry.forecast, count);
+            cached.setProvenance(entry.forecast.getProvenance().fromMemoryCache());
+            return cached;
+        }
+
+        private void put(String address, Entry entry, long now) {
+            if (entries.size() >= capacity) {
+                for (Map.Entry<String, Entry> expired : entries.entrySet()) {
+                    if (expired.getValue().expiresAt <= now) {
+                        entries.remove(expired.getKey(), expired.getValue());
+                    }
+                }
+            }
+            if (entries.size() < capacity || entries.containsKey(address)) {
+                entries.put(address, entry);
+            }
+        }
+
+        private class Entry {
+            private final DailyForecast forecast;
+            private final long expiresAt;
+
+            private Entry(DailyForecast forecast, long expiresAt) {
+                this.forecast = forecast;
+                this.expiresAt = expiresAt;
+            }
+        }
+    }
+
+    /**
+     * Keeps the hash of the latest response per address, with the data parsed from it.
+     * When full, the address used least recently makes room for a new one.
+     *
+     * @since 2.5.0.6
      */
-    public static enum Units {
-        METRIC("metric"),
-        IMPERIAL("imperial");
+    private static class ParsedResponses {
+        private final Map<String, Entry> entries;
+        private final AtomicLong skips;
+
+        private ParsedResponses(final int capacity) {
+            // in access order, so that the eldest entry is the one used least recently
+            this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                protected boolean removeEldestEntry(Map.Entry<String, ParsedResponses.Entry> eldest) {
+                    return size() > capacity;
+                }
+            };
+            this.skips = new AtomicLong();
+        }
 
-        private final String unit;
+        /**
+         * @return Data parsed before from a response with the same hash, or <code>null</code> if none.
+         */
+        private <T extends AbstractResponse> T get(String address, long hash, Class<T> type) {
+            Entry entry;
+            synchronized (entries) {
+                entry = entries.get(address);
+            }
+            if (entry != null && entry.hash == hash && type.isInstance(entry.parsed)) {
+                skips.incrementAndGet();
+                return type.cast(entry.parsed);
+            }
+            return null;
+        }
 
-        Units(String unit) {
-            this.unit = unit;
+        private void put(String address, long hash, AbstractResponse parsed) {
+            if (!parsed.isValid()) {
+                return;
+            }
+            synchronized (entries) {
+                entries.put(address, new Entry(hash, parsed));
+            }
+        }
+
+        private static class Entry {
+            private final long hash;
+            private final AbstractResponse parsed;
+
+            private Entry(long hash, AbstractResponse parsed) {
+                this.hash = hash;
+                this.parsed = parsed;
+            }
         }
     }
 
     /**
-     * Languages that can be set for getting data from OWM.org
+     * Keeps the addresses for which OWM.org responded with 404 for a while.
      *
-     * @since 2.5.0.3
+     * @since 2.5.0.6
      */
-    public static enum Language {
-        ENGLISH("en"),
-        RUSSIAN("ru"),
-        ITALIAN("it"),
-        SPANISH("es"),
-        UKRAINIAN("uk"),
-        GERMAN("de"),
-        PORTUGUESE("pt"),
-        ROMANIAN("ro"),
-        POLISH("pl"),
-        FINNISH("fi"),
-        DUTCH("nl"),
-        FRENCH("FR"),
-        BULGARIAN("bg"),
-        SWEDISH("sv"),
-        CHINESE_TRADITIONAL("zh_tw"),
-        CHINESE_SIMPLIFIED("zh"),
-        TURKISH("tr"),
-        CROATIAN("hr"),
-        CATALAN("ca");
+    private static class NotFoundResponses {
+        private final long maxAge;
+        private final int capacity;
+        private final ConcurrentMap<String, Entry> entries;
+
+        private NotFoundResponses(long maxAge, int capacity) {
+            this.maxAge = maxAge;
+            this.capacity = capacity;
+            this.entries = new ConcurrentHashMap<String, Entry>();
+        }
 
-        private final String lang;
+        /**
+         * @return Response kept for the address, or <code>null</code> if none or expired.
+         */
+        private Entry get(String address) {
+            Entry entry = entries.get(address);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(address, entry);
+                return null;
+            }
+            return entry;
+        }
 
-        Language(String lang) {
-            this.lang = lang;
+        private void put(String address, String errorBody, String errorMessage) {
+            long now = System.currentTimeMillis();
+            if (entries.size() >= capacity) {
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    if (entry.getValue().expiresAt <= now) {
+                        entries.remove(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            if (entries.size() < capacity || entries.containsKey(address)) {
+                entries.put(address, new Entry(errorBody, errorMessage, now + maxAge));
+            }
+        }
+
+        private static class Entry {
+            private final String errorBody;
+            private final String errorMessage; // parsed once, so that hits parse nothing
+            private final long expiresAt;
+
+            private Entry(String errorBody, String errorMessage, long expiresAt) {
+                this.errorBody = errorBody;
+                this.errorMessage = errorMessage;
+                this.expiresAt = expiresAt;
+            }
         }
     }
 
     /**
-     * Proxifies the default HTTP requests
+     * Proxifies the default HTTP requests. Instances are immutable, except for the
+     * position of the rotation through their proxy servers.
      *
      * @since 2.5.0.5
      */
     private static class OWMProxy {
-        private String ip;
-        private int port;
-        private String user;
-        private String pass;
+        private static final String HEADER_PROXY_AUTHORIZATION = "Proxy-Authorization";
+        private static final String BASE64_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
 
-        private OWMProxy(String ip, int port, String user, String pass) {
-            this.ip = ip;
-            this.port = port;
-            this.user = user;
-            this.pass = pass;
+        private final Server[] servers;
+        private final AtomicInteger position;
+
+        private OWMProxy() {
+            this(new Server[0]);
+        }
+
+        private OWMProxy(Server[] servers) {
+            this.servers = servers;
+            this.position = new AtomicInteger();
         }
 
-        public Proxy getProxy() {
-            Proxy proxy = null;
+        /**
+         * @return Copy of this proxy, with the given server added to the rotation.
+         * Servers without IP address or port are ignored.
+         */
+        private OWMProxy withServer(String ip, int port, String user, String pass) {
+            if (ip == null || "".equals(ip) || port == Integer.MIN_VALUE) {
+                return this;
+            }
+
+            Server[] servers = new Server[this.servers.length + 1];
+            System.arraycopy(this.servers, 0, servers, 0, this.servers.length);
+            servers[this.servers.length] = new Server(ip, port, user, pass);
+            return new OWMProxy(servers);
+        }
 
-            if (ip != null && (! "".equals(ip)) && port != Integer.MIN_VALUE) {
-                proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(ip, port));
+        /**
+         * @return Next server in the rotation, or <code>null</code> if there is none.
+         */
+        private Server next() {
+            if (servers.length == 0) {
+                return null;
             }
+            int index = position.getAndIncrement() % servers.length;
+            return servers[(index < 0) ? index + servers.length : index];
+        }
 
-            if (user != null && (! "".equals(user)) && pass != null && (! "".equals(pass))) {
-                Authenticator.setDefault(getAuthenticatorInstance(user, pass));
+        /**
+         * Sets up the connection through this server's proxy.
+         */
+        private static HttpURLConnection openConnection(URL request, Server server) throws IOException {
+            if (server == null) {
+                return (HttpURLConnection) request.openConnection();
             }
 
-            return proxy;
+            HttpURLConnection connection = (HttpURLConnection) request.openConnection(server.getProxy());
+            if (server.authorization != null) {
+                // per connection, instead of the JVM-wide java.net.Authenticator
+                connection.setRequestProperty(HEADER_PROXY_AUTHORIZATION, server.authorization);
+            }
+            return connection;
         }
 
-        private Authenticator getAuthenticatorInstance(final String user, final String pass) {
-            Authenticator authenticator = new Authenticator() {
-
-                public PasswordAuthentication getPasswordAuthentication() {
-                    return (new PasswordAuthentication(user, pass.toCharArray()));
+        private static String base64(byte[] bytes) {
+            StringBuilder encoded = new StringBuilder(((bytes.length + 2) / 3) * 4);
+            for (int i = 0; i < bytes.length; i += 3) {
+                int b = (bytes[i] & 0xff) << 16;
+                if (i + 1 < bytes.length) {
+                    b |= (bytes[i + 1] & 0xff) << 8;
+                }
+                if (i + 2 < bytes.length) {
+                    b |= (bytes[i + 2] & 0xff);
                 }
-            };
 
-            return authenticator;
+                encoded.append(BASE64_ALPHABET.charAt((b >> 18) & 0x3f));
+                encoded.append(BASE64_ALPHABET.charAt((b >> 12) & 0x3f));
+                encoded.append((i + 1 < bytes.length) ? BASE64_ALPHABET.charAt((b >> 6) & 0x3f) : '=');
+                encoded.append((i + 2 < bytes.length) ? BASE64_ALPHABET.charAt(b & 0x3f) : '=');
+            }
+            return encoded.toString();
         }
 
-        public void setIp(String ip) {
-            this.ip = ip;
-        }
+        /**
+         * A proxy server. Its address is resolved once, on first use, and then reused.
+         */
+        private static class Server {
+            private final String ip;
+            private final int port;
+            private final String authorization;
 
-        public void setPort(int port) {
-            this.port = port;
-        }
+            private volatile Proxy proxy;
 
-        public void setUser(String user) {
-            this.user = user;
-        }
+            private Server(String ip, int port, String user, String pass) {
+                this.ip = ip;
+                this.port = port;
+
+                if (user != null && (! "".equals(user)) && pass != null && (! "".equals(pass))) {
+                    String credentials = user + ":" + pass;
+                    String encoded;
+                    try {
+                        encoded = base64(credentials.getBytes("UTF-8"));
+                    } catch (UnsupportedEncodingException e) {
+                        encoded = base64(credentials.getBytes());
+                    }
+                    this.authorization = "Basic " + encoded;
+                } else {
+                    this.authorization = null;
+                }
+            }
 
-        public void setPass(String pass) {
-            this.pass = pass;
+            private Proxy getProxy() {
+                Proxy proxy = this.proxy;
+                if (proxy == null) {
+                    proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(ip, port));
+                    this.proxy = proxy;
+                }
+                return proxy;
+            }
         }
     }
 
     /**
-     * Generates addresses for accessing the information from OWM.org
+     * Generates addresses for accessing the information from OWM.org.
+     * Instances are immutable, so they can be shared freely between threads.
      *
      * @since 2.5.0.3
      */
@@ -415,10 +1453,39 @@ public class OpenWeatherMap {
         private static final String MODE = "json";
         private static final String ENCODING = "UTF-8";
 
-        private String mode;
-        private Units units;
-        private String appId;
-        private Language lang;
+        /*
+        Usual lengths of the variable parts, for sizing the builders
+         */
+        private static final int LENGTH_OF_CITY_ID = 20;
+        private static final int LENGTH_OF_COORDINATES = 32;
+        private static final int LENGTH_OF_COUNT = 8;
+
+        private final String mode;
+        private final Units units;
+        private final String appId;
+        private final Language lang;
+        private final ApiKeyPool apiKeyPool;
+        private final String baseUrl;
+
+        /*
+        Constant parts of the addresses, preceding the location; built once per instance
+         */
+        private final String prefixCurrentByCityName;
+        private final String prefixCurrentByCityId;
+        private final String prefixCurrentByCoordinates;
+        private final String prefixHourlyByCityName;
+        private final String prefixHourlyByCityId;
+        private final String prefixHourlyByCoordinates;
+        private final String prefixDailyByCityName;
+        private final String prefixDailyByCityId;
+        private final String prefixDailyByCoordinates;
+
+        /*
+        Constant parts of the addresses, following the location; built once per instance.
+        With a pool of API keys, they end with an empty appId, which is filled in per request.
+         */
+        private final String suffix;
+        private final String suffixWithoutLang;
 
         /*
         Constructors
@@ -432,10 +1499,41 @@ public class OpenWeatherMap {
         }
 
         private OWMAddress(Units units, Language lang, String appId) {
+            this(units, lang, appId, null, URL_API);
+        }
+
+        private OWMAddress(Units units, Language lang, String appId, ApiKeyPool apiKeyPool, String baseUrl) {
             this.mode = MODE;
             this.units = units;
             this.lang = lang;
             this.appId = appId;
+            this.apiKeyPool = apiKeyPool;
+            this.baseUrl = baseUrl;
+
+            this.prefixCurrentByCityName = baseUrl + URL_CURRENT + PARAM_CITY_NAME;
+            this.prefixCurrentByCityId = baseUrl + URL_CURRENT + PARAM_CITY_ID;
+            this.prefixCurrentByCoordinates = baseUrl + URL_CURRENT + PARAM_LATITUDE;
+            this.prefixHourlyByCityName = baseUrl + URL_HOURLY_FORECAST + PARAM_CITY_NAME;
+            this.prefixHourlyByCityId = baseUrl + URL_HOURLY_FORECAST + PARAM_CITY_ID;
+            this.prefixHourlyByCoordinates = baseUrl + URL_HOURLY_FORECAST + PARAM_LATITUDE;
+            this.prefixDailyByCityName = baseUrl + URL_DAILY_FORECAST + PARAM_CITY_NAME;
+            this.prefixDailyByCityId = baseUrl + URL_DAILY_FORECAST + PARAM_CITY_ID;
+            this.prefixDailyByCoordinates = baseUrl + URL_DAILY_FORECAST + PARAM_LATITUDE;
+
+
+            String key = (apiKeyPool != null) ? "" : this.appId;
+
+            this.suffix = new StringBuilder()
+                    .append("&").append(PARAM_MODE).append(this.mode)
+                    .append("&").append(PARAM_UNITS).append(this.units)
+                    .append("&").append(PARAM_LANG).append(this.lang)
+                    .append("&").append(PARAM_APPID).append(key)
+                    .toString();
+            this.suffixWithoutLang = new StringBuilder()
+                    .append("&").append(PARAM_MODE).append(this.mode)
+                    .append("&").append(PARAM_UNITS).append(this.units)
+                    .append("&").append(PARAM_APPID).append(key)
+                    .toString();
         }
 
         /*
@@ -457,33 +1555,42 @@ public class OpenWeatherMap {
             return this.lang;
         }
 
+        private ApiKeyPool getApiKeyPool() {
+            return this.apiKeyPool;
+        }
+
+        private String getBaseUrl() {
+            return this.baseUrl;
+        }
+
         /*
-        Setters
+        Copies with one setting changed
          */
-        private void setUnits(Units units) {
-            this.units = units;
+        private OWMAddress withUnits(Units units) {
+            return new OWMAddress(units, this.lang, this.appId, this.apiKeyPool, this.baseUrl);
         }
 
-        private void setAppId(String appId) {
-            this.appId = appId;
+        private OWMAddress withAppId(String appId) {
+            return new OWMAddress(this.units, this.lang, appId, this.apiKeyPool, this.baseUrl);
         }
 
-        private void setLang(Language lang) {
-            this.lang = lang;
+        private OWMAddress withLang(Language lang) {
+            return new OWMAddress(this.units, lang, this.appId, this.apiKeyPool, this.baseUrl);
+        }
+
+        private OWMAddress withApiKeyPool(ApiKeyPool apiKeyPool) {
+            return new OWMAddress(this.units, this.lang, this.appId, apiKeyPool, this.baseUrl);
+        }
+
+        private OWMAddress withBaseUrl(String baseUrl) {
+            return new OWMAddress(this.units, this.lang, this.appId, this.apiKeyPool, baseUrl);
         }
 
         /*
         Addresses for current weather
          */
         public String currentWeatherByCityName(String cityName) throws UnsupportedEncodingException {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_CURRENT)
-                    .append(PARAM_CITY_NAME).append(URLEncoder.encode(cityName, ENCODING)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
-                    .toString();
+            return fill(this.prefixCurrentByCityName, encode(cityName), this.suffix);
         }
 
         public String currentWeatherByCityName(String cityName, String countryCode) throws UnsupportedEncodingException {
@@ -493,24 +1600,16 @@ public class OpenWeatherMap {
         }
 
         public String currentWeatherByCityCode(long cityCode) {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_CURRENT)
-                    .append(PARAM_CITY_ID).append(Long.toString(cityCode)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
+            return begin(this.prefixCurrentByCityId, LENGTH_OF_CITY_ID, this.suffix)
+                    .append(cityCode)
+                    .append(this.suffix)
                     .toString();
         }
 
         public String currentWeatherByCoordinates(float latitude, float longitude) {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_CURRENT)
-                    .append(PARAM_LATITUDE).append(Float.toString(latitude)).append("&")
-                    .append(PARAM_LONGITUDE).append(Float.toString(longitude)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_APPID).append(this.appId)
+            return begin(this.prefixCurrentByCoordinates, LENGTH_OF_COORDINATES, this.suffixWithoutLang)
+                    .append(latitude).append("&").append(PARAM_LONGITUDE).append(longitude)
+                    .append(this.suffixWithoutLang)
                     .toString();
         }
 
@@ -518,14 +1617,7 @@ public class OpenWeatherMap {
         Addresses for hourly forecasts
          */
         public String hourlyForecastByCityName(String cityName) throws UnsupportedEncodingException {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_HOURLY_FORECAST)
-                    .append(PARAM_CITY_NAME).append(URLEncoder.encode(cityName, ENCODING)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
-                    .toString();
+            return fill(this.prefixHourlyByCityName, encode(cityName), this.suffix);
         }
 
         public String hourlyForecastByCityName(String cityName, String countryCode) throws UnsupportedEncodingException {
@@ -535,25 +1627,16 @@ public class OpenWeatherMap {
         }
 
         public String hourlyForecastByCityCode(long cityCode) {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_HOURLY_FORECAST)
-                    .append(PARAM_CITY_ID).append(Long.toString(cityCode)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
+            return begin(this.prefixHourlyByCityId, LENGTH_OF_CITY_ID, this.suffix)
+                    .append(cityCode)
+                    .append(this.suffix)
                     .toString();
         }
 
         public String hourlyForecastByCoordinates(float latitude, float longitude) {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_HOURLY_FORECAST)
-                    .append(PARAM_LATITUDE).append(Float.toString(latitude)).append("&")
-                    .append(PARAM_LONGITUDE).append(Float.toString(longitude)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
+            return begin(this.prefixHourlyByCoordinates, LENGTH_OF_COORDINATES, this.suffix)
+                    .append(latitude).append("&").append(PARAM_LONGITUDE).append(longitude)
+                    .append(this.suffix)
                     .toString();
         }
 
@@ -561,14 +1644,11 @@ public class OpenWeatherMap {
         Addresses for daily forecasts
          */
         public String dailyForecastByCityName(String cityName, byte count) throws UnsupportedEncodingException {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_DAILY_FORECAST)
-                    .append(PARAM_CITY_NAME).append(URLEncoder.encode(cityName, ENCODING)).append("&")
-                    .append(PARAM_COUNT).append(Byte.toString(count)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
+            String encodedCityName = encode(cityName);
+            return begin(this.prefixDailyByCityName, encodedCityName.length() + LENGTH_OF_COUNT, this.suffix)
+                    .append(encodedCityName)
+                    .append("&").append(PARAM_COUNT).append(count)
+                    .append(this.suffix)
                     .toString();
         }
 
@@ -579,198 +1659,283 @@ public class OpenWeatherMap {
         }
 
         public String dailyForecastByCityCode(long cityCode, byte count) {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_DAILY_FORECAST)
-                    .append(PARAM_CITY_ID).append(Long.toString(cityCode)).append("&")
-                    .append(PARAM_COUNT).append(Byte.toString(count)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
+            return begin(this.prefixDailyByCityId, LENGTH_OF_CITY_ID + LENGTH_OF_COUNT, this.suffix)
+                    .append(cityCode)
+                    .append("&").append(PARAM_COUNT).append(count)
+                    .append(this.suffix)
                     .toString();
         }
 
         public String dailyForecastByCoordinates(float latitude, float longitude, byte count) {
-            return new StringBuilder()
-                    .append(URL_API).append(URL_DAILY_FORECAST)
-                    .append(PARAM_LATITUDE).append(Float.toString(latitude)).append("&")
-                    .append(PARAM_LONGITUDE).append(Float.toString(longitude)).append("&")
-                    .append(PARAM_COUNT).append(Byte.toString(count)).append("&")
-                    .append(PARAM_MODE).append(this.mode).append("&")
-                    .append(PARAM_UNITS).append(this.units).append("&")
-                    .append(PARAM_LANG).append(this.lang).append("&")
-                    .append(PARAM_APPID).append(this.appId)
+            return begin(this.prefixDailyByCoordinates, LENGTH_OF_COORDINATES + LENGTH_OF_COUNT, this.suffix)
+                    .append(latitude).append("&").append(PARAM_LONGITUDE).append(longitude)
+                    .append("&").append(PARAM_COUNT).append(count)
+                    .append(this.suffix)
                     .toString();
         }
-    }
-
-    /**
-     * Requests OWM.org for data and provides back the incoming response.
-     *
-     * @since 2.5.0.3
-     */
-    private static class OWMResponse {
-        private final OWMAddress owmAddress;
-        private final OWMProxy owmProxy;
-
-        public OWMResponse(OWMAddress owmAddress, OWMProxy owmProxy) {
-            this.owmAddress = owmAddress;
-            this.owmProxy = owmProxy;
-        }
 
         /*
-        Responses for current weather
+        Template filling
          */
-        public String currentWeatherByCityName(String cityName) throws UnsupportedEncodingException {
-            String address = owmAddress.currentWeatherByCityName(cityName);
-            return httpGET(address);
-        }
-
-        public String currentWeatherByCityName(String cityName, String countryCode) throws UnsupportedEncodingException {
-            String address = owmAddress.currentWeatherByCityName(cityName, countryCode);
-            return httpGET(address);
-        }
-
-        public String currentWeatherByCityCode(long cityCode) {
-            String address = owmAddress.currentWeatherByCityCode(cityCode);
-            return httpGET(address);
+        private static String fill(String prefix, String value, String suffix) {
+            return begin(prefix, value.length(), suffix)
+                    .append(value)
+                    .append(suffix)
+                    .toString();
         }
 
-        public String currentWeatherByCoordinates(float latitude, float longitude) {
-            String address = owmAddress.currentWeatherByCoordinates(latitude, longitude);
-            return httpGET(address);
+        private static StringBuilder begin(String prefix, int variableLength, String suffix) {
+            return new StringBuilder(prefix.length() + variableLength + suffix.length()).append(prefix);
         }
 
-        /*
-        Responses for hourly forecasts
+        /**
+         * URL-encodes the value, returning it as is if no character in it needs encoding.
          */
-        public String hourlyForecastByCityName(String cityName) throws UnsupportedEncodingException {
-            String address = owmAddress.hourlyForecastByCityName(cityName);
-            return httpGET(address);
-        }
-
-        public String hourlyForecastByCityName(String cityName, String countryCode) throws UnsupportedEncodingException {
-            String address = owmAddress.hourlyForecastByCityName(cityName, countryCode);
-            return httpGET(address);
+        private static String encode(String value) throws UnsupportedEncodingException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                boolean unreserved = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '_' || c == '.' || c == '*';
+                if (!unreserved) {
+                    return URLEncoder.encode(value, ENCODING);
+                }
+            }
+            return value;
         }
+    }
 
-        public String hourlyForecastByCityCode(long cityCode) {
-            String address = owmAddress.hourlyForecastByCityCode(cityCode);
-            return httpGET(address);
-        }
+    /**
+     * Requests OWM.org for data and provides back the incoming response.
+     *
+     * @since 2.5.0.3
+     */
+    private static class OWMResponse {
+        private final AtomicReference<OWMProxy> owmProxy;
+        private final OWMMetrics metrics;
+        private final Latency latency = new Latency();
+        private volatile OWMCassette cassette;
 
-        public String hourlyForecastByCoordinates(float latitude, float longitude) {
-            String address = owmAddress.hourlyForecastByCoordinates(latitude, longitude);
-            return httpGET(address);
+        public OWMResponse(AtomicReference<OWMProxy> owmProxy, OWMMetrics metrics) {
+            this.owmProxy = owmProxy;
+            this.metrics = metrics;
         }
 
-        /*
-        Responses for daily forecasts
+        /**
+         * Implements HTTP's GET method
+         *
+         * @param owmAddress     Configuration the address was built from
+         * @param requestAddress Address to be loaded
+         * @param deadline       Time by which the request must complete
+         * @param endpoint       Endpoint of the address, for metrics
+         * @param fetch          Provenance being collected, or <code>null</code>
+         * @param tracer         Tracer of the request, or <code>null</code>
+         * @param city           City requested, for the tracer
+         * @return Response, or <code>null</code> if it is empty
+         * @throws OWMHttpException       If OWM.org responds with an error.
+         * @throws OWMConnectionException If the request fails without a response.
+         * @throws OWMTimeoutException    If the request does not complete by the deadline.
+         * @see <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec9.html">HTTP - (9.3) GET</a>
          */
-        public String dailyForecastByCityName(String cityName, byte count) throws UnsupportedEncodingException {
-            String address = owmAddress.dailyForecastByCityName(cityName, count);
-            return httpGET(address);
-        }
-
-        public String dailyForecastByCityName(String cityName, String countryCode, byte count) throws UnsupportedEncodingException {
-            String address = owmAddress.dailyForecastByCityName(cityName, countryCode, count);
-            return httpGET(address);
-        }
+        private String httpGET(OWMAddress owmAddress, String requestAddress, long deadline, OWMMetrics.Endpoint endpoint, Provenance.Builder fetch,
+                               OWMTracer tracer, String city) {
+            OWMCassette cassette = this.cassette;
+            if (cassette == null) {
+                return request(owmAddress, requestAddress, deadline, endpoint, fetch, tracer, city);
+            }
 
-        public String dailyForecastByCityCode(long cityCode, byte count) {
-            String address = owmAddress.dailyForecastByCityCode(cityCode, count);
-            return httpGET(address);
-        }
+            String baseUrl = owmAddress.getBaseUrl();
+            if (!cassette.isRecording()) {
+                return cassette.replay(requestAddress, baseUrl);
+            }
 
-        public String dailyForecastByCoordinates(float latitude, float longitude, byte count) {
-            String address = owmAddress.dailyForecastByCoordinates(latitude, longitude, count);
-            return httpGET(address);
+            long startNanos = System.nanoTime();
+            try {
+                String response = request(owmAddress, requestAddress, deadline, endpoint, fetch, tracer, city);
+                cassette.record(requestAddress, baseUrl, endpoint, HttpURLConnection.HTTP_OK, response,
+                        System.nanoTime() - startNanos);
+                return response;
+            } catch (OWMHttpException e) {
+                cassette.record(requestAddress, baseUrl, endpoint, e.getResponseCode(), e.getErrorBody(),
+                        System.nanoTime() - startNanos);
+                throw e;
+            } catch (OWMException e) {
+                cassette.recordFailure(requestAddress, baseUrl, endpoint, e instanceof OWMTimeoutException,
+                        System.nanoTime() - startNanos);
+                throw e;
+            }
         }
 
         /**
-         * Implements HTTP's GET method
-         *
-         * @param requestAddress Address to be loaded
-         * @return Response if successful, else <code>null</code>
-         * @see <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec9.html">HTTP - (9.3) GET</a>
+         * Makes the request, and, if OWM.org rejects the API key picked from the pool as
+         * unauthorized (401) or rate limited (429), makes it once more with the next key.
          */
-        private String httpGET(String requestAddress) {
+        private String request(OWMAddress owmAddress, String requestAddress, long deadline, OWMMetrics.Endpoint endpoint, Provenance.Builder fetch,
+                               OWMTracer tracer, String city) {
+            try {
+                return attempt(owmAddress, requestAddress, deadline, endpoint, fetch, tracer, city);
+            } catch (OWMHttpException e) {
+                ApiKeyPool apiKeyPool = owmAddress.getApiKeyPool();
+                int responseCode = e.getResponseCode();
+                if (apiKeyPool == null || !requestAddress.endsWith(PARAM_APPID)
+                        || (responseCode != HTTP_UNAUTHORIZED && responseCode != HTTP_TOO_MANY_REQUESTS)
+                        || !apiKeyPool.hasUsableKey()) {
+                    throw e;
+                }
+                // the rejected key is left out now, so the pool picks another one
+                return attempt(owmAddress, requestAddress, deadline, endpoint, fetch, tracer, city);
+            }
+        }
+
+        private String attempt(OWMAddress owmAddress, String requestAddress, long deadline, OWMMetrics.Endpoint endpoint, Provenance.Builder fetch,
+                               OWMTracer tracer, String city) {
+            OWMProxy owmProxy = this.owmProxy.get();
+            ApiKeyPool apiKeyPool = owmAddress.getApiKeyPool();
+            String apiKey = null;
             URL request;
             HttpURLConnection connection = null;
             BufferedReader reader = null;
+            Watchdog watchdog = null;
+            OWMMetrics.MeteredInputStream wire = null;
+            OWMMetrics.MeteredInputStream decompressed = null;
+            long headerNanos = 0;
 
             String tmpStr;
             String response = null;
+            boolean reusable = false;
+            long start = System.currentTimeMillis();
+            long startNanos = System.nanoTime();
+            int responseCode = -1;
+            String outcome = OWMTracer.OUTCOME_IO_ERROR;
+            Object trace = (tracer != null) ? tracer.requestStarted(endpoint, city) : null;
 
             try {
+                if (apiKeyPool != null && requestAddress.endsWith(PARAM_APPID)) {
+                    long acquiring = System.nanoTime();
+                    apiKey = apiKeyPool.acquire();
+                    if (apiKey == null) { // an empty pool falls back to the API key set otherwise
+                        apiKey = owmAddress.getAppId();
+                        if (apiKey == null) {
+                            throw new OWMException("The pool of API keys is empty, and no API key is set otherwise.",
+                                    null, System.currentTimeMillis() - start, false);
+                        }
+                    }
+                    requestAddress = requestAddress + apiKey;
+                    if (tracer != null) {
+                        tracer.apiKeyAcquired(endpoint, city, System.nanoTime() - acquiring);
+                    }
+                }
                 request = new URL(requestAddress);
 
-                if (owmProxy.getProxy() != null) {
-                    connection = (HttpURLConnection) request.openConnection(owmProxy.getProxy());
-                } else {
-                    connection = (HttpURLConnection) request.openConnection();
+                OWMProxy.Server server = owmProxy.next();
+                if (server == null) { // else the proxy looks the host up
+                    HostLookup.lookUp(request.getHost(), deadline);
                 }
+                connection = OWMProxy.openConnection(request, server);
 
                 connection.setRequestMethod("GET");
                 connection.setUseCaches(false);
                 connection.setDoInput(true);
                 connection.setDoOutput(false);
                 connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+                connection.setConnectTimeout(Watchdog.timeUntil(deadline));
+                connection.setReadTimeout(latency.readTimeout(deadline));
+                watchdog = Watchdog.arm(connection, deadline);
                 connection.connect();
 
-                if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                responseCode = connection.getResponseCode();
+                if (apiKey != null) {
+                    apiKeyPool.report(apiKey, responseCode);
+                }
+
+                if (responseCode == HttpURLConnection.HTTP_OK) {
                     String encoding = connection.getContentEncoding();
 
                     try {
+                        wire = new OWMMetrics.MeteredInputStream(connection.getInputStream());
                         if (encoding != null && "gzip".equalsIgnoreCase(encoding)) {
-                            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(connection.getInputStream())));
+                            decompressed = new OWMMetrics.MeteredInputStream(new GZIPInputStream(wire));
                         } else if (encoding != null && "deflate".equalsIgnoreCase(encoding)) {
-                            reader = new BufferedReader(new InputStreamReader(new InflaterInputStream(connection.getInputStream(), new Inflater(true))));
-                        } else {
-                            reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+                            decompressed = new OWMMetrics.MeteredInputStream(new InflaterInputStream(wire, new Inflater(true)));
                         }
+                        headerNanos = wire.getNanos(); // GZIP's header is read before any decompressing
+                        reader = new BufferedReader(new InputStreamReader((decompressed != null) ? decompressed : wire));
 
                         while ((tmpStr = reader.readLine()) != null) {
                             response = tmpStr;
                         }
-                    } catch (IOException e) {
-                        System.err.println("Error: " + e.getMessage());
+                        reusable = true;
+                        outcome = OWMTracer.OUTCOME_OK;
                     } finally {
                         if (reader != null) {
                             try {
                                 reader.close();
                             } catch (IOException e) {
-                                System.err.println("Error: " + e.getMessage());
+                                RateLimitedLog.log("close", "Closing the response failed: " + e.getMessage());
                             }
                         }
                     }
                 } else { // if HttpURLConnection is not okay
-                    try {
-                        reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                        while ((tmpStr = reader.readLine()) != null) {
-                            response = tmpStr;
-                        }
-                    } catch (IOException e) {
-                        System.err.println("Error: " + e.getMessage());
-                    } finally {
-                        if (reader != null) {
+                    metrics.recordError(endpoint, String.valueOf(responseCode));
+                    outcome = OWMTracer.OUTCOME_HTTP_ERROR;
+                    if (connection.getErrorStream() != null) {
+                        try {
+                            wire = new OWMMetrics.MeteredInputStream(connection.getErrorStream());
+                            reader = new BufferedReader(new InputStreamReader(wire));
+                            while ((tmpStr = reader.readLine()) != null) {
+                                response = tmpStr;
+                            }
+                        } finally {
                             try {
                                 reader.close();
                             } catch (IOException e) {
-                                System.err.println("Error: " + e.getMessage());
+                                RateLimitedLog.log("close", "Closing the response failed: " + e.getMessage());
                             }
                         }
                     }
 
-                    // if response is bad
-                    System.err.println("Bad Response: " + response + "\n");
-                    return null;
+                    throw new OWMHttpException(responseCode, response, System.currentTimeMillis() - start);
                 }
+            } catch (OWMTimeoutException e) { // out of time before connecting
+                metrics.recordError(endpoint, OWMMetrics.ERROR_TIMEOUT);
+                outcome = OWMTracer.OUTCOME_TIMEOUT;
+                throw new OWMTimeoutException(System.currentTimeMillis() - start, e.getCause());
             } catch (IOException e) {
-                System.err.println("Error: " + e.getMessage());
-                response = null;
+                if (e instanceof SocketTimeoutException || (watchdog != null && watchdog.hasFired())
+                        || System.currentTimeMillis() >= deadline) {
+                    metrics.recordError(endpoint, OWMMetrics.ERROR_TIMEOUT);
+                    outcome = OWMTracer.OUTCOME_TIMEOUT;
+                    throw new OWMTimeoutException(System.currentTimeMillis() - start, e);
+                }
+                metrics.recordError(endpoint, OWMMetrics.ERROR_IO);
+                throw new OWMConnectionException(System.currentTimeMillis() - start, e);
             } finally {
-                if (connection != null) {
+                if (watchdog != null) {
+                    watchdog.disarm();
+                }
+                // every attempt counts, so that slow failures are not left out of the latencies
+                metrics.recordLatency(endpoint, outcome, System.nanoTime() - startNanos);
+                latency.record(System.currentTimeMillis() - start);
+                long wireBytes = 0;
+                long decompressedBytes = 0;
+                if (wire != null) {
+                    // time in the decompressing stream, less the time it waited for the wire, went into decompressing
+                    wireBytes = wire.getBytes();
+                    decompressedBytes = (decompressed != null) ? decompressed.getBytes() : wireBytes;
+                    long decompressionNanos = (decompressed != null) ? decompressed.getNanos() - (wire.getNanos() - headerNanos) : 0;
+                    metrics.recordTransfer(endpoint, wireBytes, decompressedBytes, decompressionNanos);
+                    if (fetch != null) {
+                        fetch.fetched(System.nanoTime() - startNanos, wireBytes,
+                                (apiKey != null) ? apiKey : owmAddress.getAppId());
+                    }
+                    if (tracer != null && decompressed != null) {
+                        tracer.decompressed(endpoint, city, wireBytes, decompressedBytes, decompressionNanos);
+                    }
+                }
+                if (tracer != null) {
+                    tracer.requestEnded(trace, responseCode, wireBytes, decompressedBytes, outcome);
+                }
+                // a fully read connection is left open, so that later requests can reuse it (keep-alive)
+                if (connection != null && !reusable) {
                     connection.disconnect();
                 }
             }
@@ -778,4 +1943,178 @@ public class OpenWeatherMap {
             return response;
         }
     }
+
+    /**
+     * Keeps recent latencies of requests, to derive the read timeout from them: a read
+     * taking several times longer than almost all requests do is treated as stalled.
+     *
+     * @since 2.5.0.6
+     */
+    private static class Latency {
+        private static final int SAMPLES = 512;
+        private static final int RECOMPUTE_EVERY = 64;
+        private static final int STALL_FACTOR = 4;
+        private static final int MIN_READ_TIMEOUT = 5 * 1000;
+
+        private final long[] samples = new long[SAMPLES];
+        private final AtomicLong recorded = new AtomicLong();
+        private volatile long percentile99 = -1;
+
+        private void record(long latency) {
+            long index = recorded.getAndIncrement();
+            samples[(int) (index % SAMPLES)] = latency;
+
+            if ((index + 1) % RECOMPUTE_EVERY == 0) {
+                int count = (int) Math.min(index + 1, SAMPLES);
+                long[] sorted = new long[count];
+                System.arraycopy(samples, 0, sorted, 0, count);
+                Arrays.sort(sorted);
+                percentile99 = sorted[(int) (count * 0.99)];
+            }
+        }
+
+        /**
+         * @return Read timeout, never later than the deadline; until enough latencies
+         * are known, the time left until the deadline.
+         */
+        private int readTimeout(long deadline) {
+            int untilDeadline = Watchdog.timeUntil(deadline);
+            long p99 = this.percentile99;
+            if (p99 < 0) {
+                return untilDeadline;
+            }
+            long stalled = Math.max(MIN_READ_TIMEOUT, p99 * STALL_FACTOR);
+            return (int) Math.min(untilDeadline, stalled);
+        }
+    }
+
+    /**
+     * Disconnects a connection still open at its deadline, which ends a blocked
+     * connect or read in any phase, including while decompressing.
+     *
+     * @since 2.5.0.6
+     */
+    private static class Watchdog implements Runnable {
+        private static final int PURGE_EVERY = 1024;
+
+        private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "owm-deadline");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        private static final AtomicInteger DISARMED = new AtomicInteger();
+
+        private final HttpURLConnection connection;
+        private final AtomicBoolean fired = new AtomicBoolean();
+        private volatile ScheduledFuture<?> future;
+
+        private Watchdog(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        private static Watchdog arm(HttpURLConnection connection, long deadline) {
+            Watchdog watchdog = new Watchdog(connection);
+            watchdog.future = TIMER.schedule(watchdog, timeUntil(deadline), TimeUnit.MILLISECONDS);
+            return watchdog;
+        }
+
+        /**
+         * @return Time left until the deadline, in milliseconds as taken by URLConnection's timeouts.
+         * @throws OWMTimeoutException If the deadline has passed.
+         */
+        private static int timeUntil(long deadline) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                throw new OWMTimeoutException(0, null);
+            }
+            return (int) Math.min(left, Integer.MAX_VALUE);
+        }
+
+        public void run() {
+            if (fired.compareAndSet(false, true)) {
+                connection.disconnect();
+            }
+        }
+
+        private boolean hasFired() {
+            return fired.get();
+        }
+
+        private void disarm() {
+            // the connection may be kept alive after this, so it must not be disconnected anymore
+            if (!fired.get()) {
+                future.cancel(false);
+                // cancelled timers stay queued until due, unless purged
+                if (DISARMED.incrementAndGet() % PURGE_EVERY == 0) {
+                    TIMER.purge();
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks host names up under a deadline. URLConnection's timeouts don't cover the lookup,
+     * so a host not looked up lately is looked up on another thread, which is waited for
+     * until the deadline. The JVM then caches the address for the connection to use.
+     * Callers looking up the same host share one lookup, so a stalled name server ties
+     * up at most one thread per host, however many requests wait for it.
+     *
+     * @since 2.5.0.6
+     */
+    private static class HostLookup {
+        private static final long FRESH_FOR = 30 * 1000L;
+
+        private static final ExecutorService LOOKUPS = Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "owm-lookup");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        private static final ConcurrentMap<String, Long> LOOKED_UP = new ConcurrentHashMap<String, Long>();
+        private static final ConcurrentMap<String, Future<InetAddress[]>> IN_FLIGHT =
+                new ConcurrentHashMap<String, Future<InetAddress[]>>();
+
+        private static void lookUp(final String host, long deadline) throws IOException {
+            Long lookedUp = LOOKED_UP.get(host);
+            if (lookedUp != null && System.currentTimeMillis() - lookedUp < FRESH_FOR) {
+                return;
+            }
+
+            Future<InetAddress[]> lookup = IN_FLIGHT.get(host);
+            if (lookup == null) {
+                FutureTask<InetAddress[]> task = new FutureTask<InetAddress[]>(new Callable<InetAddress[]>() {
+                    public InetAddress[] call() throws UnknownHostException {
+                        return InetAddress.getAllByName(host);
+                    }
+                }) {
+                    protected void done() {
+                        IN_FLIGHT.remove(host, this);
+                    }
+                };
+                lookup = IN_FLIGHT.putIfAbsent(host, task);
+                if (lookup == null) {
+                    lookup = task;
+                    LOOKUPS.execute(task);
+                }
+            }
+            // a lookup is not cancelled when one of its callers gives up, as others may still wait for it
+            try {
+                lookup.get(Watchdog.timeUntil(deadline), TimeUnit.MILLISECONDS);
+                LOOKED_UP.put(host, System.currentTimeMillis());
+            } catch (TimeoutException e) {
+                throw new OWMTimeoutException(0, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while looking up " + host);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Looking up " + host + " failed: " + e.getCause());
+            }
+        }
+    }
 }
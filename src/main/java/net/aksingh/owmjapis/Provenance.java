@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.io.Serializable;
+
+/**
+ * <p>
+ * Where a response came from and what it took to get it: its source, when it was
+ * fetched, the time spent on the network and on parsing, its size, and the API key used.
+ * It is attached to responses only if asked for.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>owm.setProvenance(true);</code><br>
+ * <code>CurrentWeather cwd = owm.currentWeatherByCityCode(1283240);</code><br>
+ * <code>if (cwd.hasProvenance()) {</code><br>
+ * <code>&nbsp;&nbsp;&nbsp;&nbsp;System.out.println(cwd.getProvenance().getSource());</code><br>
+ * <code>}</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.OpenWeatherMap#setProvenance(boolean)
+ * @since 2.5.0.6
+ */
+public class Provenance implements Serializable {
+    private final Source source;
+    private final long fetchedAt;
+    private final long networkNanos;
+    private final long parseNanos;
+    private final long bytes;
+    private final String apiKey;
+
+    private Provenance(Source source, long fetchedAt, long networkNanos, long parseNanos, long bytes, String apiKey) {
+        this.source = source;
+        this.fetchedAt = fetchedAt;
+        this.networkNanos = networkNanos;
+        this.parseNanos = parseNanos;
+        this.bytes = bytes;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * @return Same provenance, but for data served from the cache in memory.
+     */
+    Provenance fromMemoryCache() {
+        return new Provenance(Source.MEMORY_CACHE, fetchedAt, networkNanos, parseNanos, bytes, apiKey);
+    }
+
+    public Source getSource() {
+        return this.source;
+    }
+
+    /**
+     * @return Time (in milliseconds since the epoch) when the response was fetched from OWM.org.
+     * For cached data, it is when the data was fetched, not when it was served.
+     */
+    public long getFetchedAt() {
+        return this.fetchedAt;
+    }
+
+    /**
+     * @return Time (in nanoseconds) spent on the request, from looking the host up to reading the response.
+     */
+    public long getNetworkNanos() {
+        return this.networkNanos;
+    }
+
+    /**
+     * @return Time (in nanoseconds) spent parsing the response.
+     */
+    public long getParseNanos() {
+        return this.parseNanos;
+    }
+
+    /**
+     * @return Size (in bytes) of the response as received, possibly compressed.
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    public boolean hasApiKey() {
+        return this.apiKey != null;
+    }
+
+    /**
+     * @return API key used for the request, if available, otherwise <code>null</code>.
+     */
+    public String getApiKey() {
+        return this.apiKey;
+    }
+
+    /**
+     * Sources of responses.
+     *
+     * @since 2.5.0.6
+     */
+    public static enum Source {
+        /**
+         * Fetched from OWM.org for the request.
+         */
+        NETWORK,
+
+        /**
+         * Served from the data cached in memory, e.g., a widened daily forecast.
+         */
+        MEMORY_CACHE
+    }
+
+    /**
+     * Collects the provenance of a response while it is fetched and parsed.
+     */
+    static class Builder {
+        private final long fetchedAt = System.currentTimeMillis();
+        private long parseStart = System.nanoTime();
+        private long networkNanos;
+        private long parseNanos;
+        private long bytes;
+        private String apiKey;
+
+        void fetched(long networkNanos, long bytes, String apiKey) {
+            this.networkNanos = networkNanos;
+            this.bytes = bytes;
+            this.apiKey = apiKey;
+            this.parseStart = System.nanoTime();
+        }
+
+        void parsed() {
+            this.parseNanos = System.nanoTime() - parseStart;
+        }
+
+        Provenance build() {
+            return new Provenance(Source.NETWORK, fetchedAt, networkNanos, parseNanos, bytes, apiKey);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Logs unexpected conditions to the standard error, at most once a minute for each kind,
+ * so that a storm of the same error does not have every thread queue up on the stream.
+ * The ones left out are counted, and the count is logged with the next one.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+class RateLimitedLog {
+    private static final long WINDOW = 60 * 1000L;
+
+    private static final ConcurrentMap<String, Kind> KINDS = new ConcurrentHashMap<String, Kind>();
+
+    private RateLimitedLog() {
+    }
+
+    /**
+     * @param kind    Kind of condition, e.g., "close"; logged at most once a minute for each
+     * @param message Message to be logged
+     */
+    static void log(String kind, String message) {
+        Kind logged = KINDS.get(kind);
+        if (logged == null) {
+            Kind added = new Kind();
+            logged = KINDS.putIfAbsent(kind, added);
+            if (logged == null) {
+                logged = added;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        long last = logged.lastLogged.get();
+        if (now - last < WINDOW || !logged.lastLogged.compareAndSet(last, now)) {
+            logged.leftOut.incrementAndGet();
+            return;
+        }
+
+        long leftOut = logged.leftOut.getAndSet(0);
+        System.err.println("Error: " + message + ((leftOut > 0) ? " (" + leftOut + " more left out)" : ""));
+    }
+
+    private static class Kind {
+        private final AtomicLong lastLogged = new AtomicLong(Long.MIN_VALUE / 2);
+        private final AtomicLong leftOut = new AtomicLong();
+    }
+}
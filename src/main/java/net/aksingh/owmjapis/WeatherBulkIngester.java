@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <p>
+ * Ingests the bulk files of OWM.org, which have the weather of every city as JSON, one city
+ * per line, usually gzipped. The file is read as a stream and split into batches of lines,
+ * which are parsed in parallel, and the data of every line is handed to a {@link Sink}.
+ * </p>
+ * <p>
+ * Only a few batches are in flight at a time, so memory stays bounded whatever the size of
+ * the file, and reading waits for parsing to catch up. Lines in the format of the bulk files
+ * (with the city in a <code>city</code> object, and daily forecasts in <code>data</code>) and
+ * lines with responses of the API are both understood.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>WeatherBulkIngester.Result result = WeatherBulkIngester.forDailyForecasts()</code><br>
+ * <code>&nbsp;&nbsp;&nbsp;&nbsp;.ingest(new File("daily_16.json.gz"), sink);</code><br>
+ * <code>System.out.println(result.getThroughput() + " records/s");</code>
+ * </p>
+ *
+ * @param <T> Type of the weather data
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class WeatherBulkIngester<T extends AbstractResponse> {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Parser<T> parser;
+    private ExecutorService executor;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int batchesInFlight;
+
+    private WeatherBulkIngester(Parser<T> parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * @return Ingester of bulk files of daily forecasts, e.g., <code>daily_16.json.gz</code>.
+     */
+    public static WeatherBulkIngester<DailyForecast> forDailyForecasts() {
+        return new WeatherBulkIngester<DailyForecast>(new Parser<DailyForecast>() {
+            public DailyForecast parse(JSONObject jsonObj) {
+                return new DailyForecast(fromBulkForecast(jsonObj));
+            }
+        });
+    }
+
+    /**
+     * @return Ingester of bulk files of current weather, e.g., <code>weather_16.json.gz</code>.
+     */
+    public static WeatherBulkIngester<CurrentWeather> forCurrentWeather() {
+        return new WeatherBulkIngester<CurrentWeather>(new Parser<CurrentWeather>() {
+            public CurrentWeather parse(JSONObject jsonObj) {
+                return new CurrentWeather(fromBulkWeather(jsonObj));
+            }
+        });
+    }
+
+    /**
+     * Set the executor for parsing, e.g., a <code>ForkJoinPool</code>. By default, a pool of
+     * a thread per processor is created for every ingestion, and shut down after it.
+     *
+     * @param executor Executor for parsing
+     * @return This ingester.
+     */
+    public WeatherBulkIngester<T> withExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param batchSize Count of lines parsed together, 256 by default
+     * @return This ingester.
+     */
+    public WeatherBulkIngester<T> withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @param batchesInFlight Count of batches read but not yet delivered, at most;
+     *                        by default, twice the count of processors
+     * @return This ingester.
+     */
+    public WeatherBulkIngester<T> withBatchesInFlight(int batchesInFlight) {
+        if (batchesInFlight < 1) {
+            throw new IllegalArgumentException("Batches in flight must be at least 1.");
+        }
+        this.batchesInFlight = batchesInFlight;
+        return this;
+    }
+
+    /**
+     * Ingests a bulk file, which is gunzipped if its name ends with <code>.gz</code>.
+     *
+     * @param file Bulk file
+     * @param sink Sink of the data
+     * @return Count, failures and time taken of the records.
+     * @throws IOException          If reading the file fails.
+     * @throws InterruptedException If interrupted while ingesting.
+     */
+    public Result ingest(File file, Sink<? super T> sink) throws IOException, InterruptedException {
+        InputStream in = new FileInputStream(file);
+        try {
+            if (file.getName().endsWith(".gz")) {
+                in = new GZIPInputStream(in, 65536);
+            }
+            return ingest(in, sink);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Ingests a bulk file's stream of lines, which is not closed.
+     *
+     * @param in   Stream of the lines, already gunzipped
+     * @param sink Sink of the data
+     * @return Count, failures and time taken of the records.
+     * @throws IOException          If reading the stream fails.
+     * @throws InterruptedException If interrupted while ingesting.
+     */
+    public Result ingest(InputStream in, final Sink<? super T> sink) throws IOException, InterruptedException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = this.executor;
+        boolean ownExecutor = (executor == null);
+        if (ownExecutor) {
+            executor = Executors.newFixedThreadPool(processors, new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "owm-bulk");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        final int permits = (batchesInFlight > 0) ? batchesInFlight : 2 * processors;
+        final Semaphore inFlight = new Semaphore(permits);
+        final AtomicLong records = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        long start = System.nanoTime();
+
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"), 65536);
+            List<String> lines = new ArrayList<String>(batchSize);
+            long firstLine = 1;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == batchSize) {
+                    submit(executor, inFlight, new Batch(lines, firstLine, sink, inFlight, records, failures));
+                    firstLine += lines.size();
+                    lines = new ArrayList<String>(batchSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(executor, inFlight, new Batch(lines, firstLine, sink, inFlight, records, failures));
+            }
+        } finally {
+            // every batch gives its permit back once delivered
+            inFlight.acquireUninterruptibly(permits);
+            if (ownExecutor) {
+                executor.shutdown();
+            }
+        }
+
+        return new Result(records.get(), failures.get(), System.nanoTime() - start);
+    }
+
+    private static void submit(ExecutorService executor, Semaphore inFlight, Runnable batch)
+            throws InterruptedException {
+        inFlight.acquire();
+        try {
+            executor.execute(batch);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Brings a line of a bulk file of daily forecasts into the shape of a response of the API.
+     */
+    private static JSONObject fromBulkForecast(JSONObject jsonObj) {
+        if (!jsonObj.has("list")) {
+            JSONArray data = jsonObj.optJSONArray("data");
+            if (data != null) {
+                jsonObj.put("list", data);
+                jsonObj.put("cnt", data.length());
+                jsonObj.remove("data");
+            }
+        }
+        if (!jsonObj.has("cod")) {
+            jsonObj.put("cod", 200);
+        }
+        return jsonObj;
+    }
+
+    /**
+     * Brings a line of a bulk file of current weather into the shape of a response of the API.
+     */
+    private static JSONObject fromBulkWeather(JSONObject jsonObj) {
+        JSONObject city = jsonObj.optJSONObject("city");
+        if (city != null && !jsonObj.has("name")) {
+            jsonObj.put("id", city.optLong("id"));
+            jsonObj.put("name", city.optString("name"));
+            if (city.has("coord") && !jsonObj.has("coord")) {
+                jsonObj.put("coord", city.get("coord"));
+            }
+            JSONObject sys = jsonObj.optJSONObject("sys");
+            if (sys == null) {
+                sys = new JSONObject();
+                jsonObj.put("sys", sys);
+            }
+            if (city.has("country") && !sys.has("country")) {
+                sys.put("country", city.get("country"));
+            }
+            jsonObj.remove("city");
+        }
+        if (!jsonObj.has("dt") && jsonObj.has("time")) {
+            jsonObj.put("dt", jsonObj.optLong("time"));
+        }
+        if (!jsonObj.has("cod")) {
+            jsonObj.put("cod", 200);
+        }
+        return jsonObj;
+    }
+
+    /**
+     * <p>
+     * Sink of ingested data. It's called from the threads parsing, concurrently, and in no
+     * particular order, so it must be thread-safe.
+     * </p>
+     */
+    public interface Sink<T extends AbstractResponse> {
+        /**
+         * Called with the data of a line.
+         *
+         * @param data Data of the line
+         */
+        void accept(T data);
+
+        /**
+         * Called when a line could not be parsed, or <code>accept</code> failed for it.
+         * Exceptions thrown from here are logged, and the other lines delivered all the same.
+         *
+         * @param lineNumber Number of the line, counting from 1
+         * @param e          Exception
+         */
+        void failed(long lineNumber, RuntimeException e);
+    }
+
+    private interface Parser<T extends AbstractResponse> {
+        T parse(JSONObject jsonObj);
+    }
+
+    /**
+     * Parses a batch of lines and delivers their data.
+     */
+    private class Batch implements Runnable {
+        private final List<String> lines;
+        private final long firstLine;
+        private final Sink<? super T> sink;
+        private final Semaphore inFlight;
+        private final AtomicLong records;
+        private final AtomicLong failures;
+
+        private Batch(List<String> lines, long firstLine, Sink<? super T> sink, Semaphore inFlight,
+                      AtomicLong records, AtomicLong failures) {
+            this.lines = lines;
+            this.firstLine = firstLine;
+            this.sink = sink;
+            this.inFlight = inFlight;
+            this.records = records;
+            this.failures = failures;
+        }
+
+        public void run() {
+            try {
+                for (int i = 0; i < lines.size(); i++) {
+                    String line = lines.get(i);
+                    if (line.trim().length() == 0) {
+                        continue;
+                    }
+                    records.incrementAndGet();
+                    try {
+                        sink.accept(parser.parse(new JSONObject(line)));
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        try {
+                            sink.failed(firstLine + i, e);
+                        } catch (RuntimeException thrown) {
+                            // the rest of the batch is delivered all the same
+                            RateLimitedLog.log("sink", "Sink failed on line " + (firstLine + i) + ": " + thrown);
+                        }
+                    }
+                }
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Outcome of an ingestion.
+     * </p>
+     *
+     * @since 2.5.0.6
+     */
+    public static class Result {
+        private final long records;
+        private final long failures;
+        private final long nanos;
+
+        private Result(long records, long failures, long nanos) {
+            this.records = records;
+            this.failures = failures;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return Records (non-blank lines) ingested, including failed ones.
+         */
+        public long getRecords() {
+            return this.records;
+        }
+
+        public long getFailures() {
+            return this.failures;
+        }
+
+        /**
+         * @return Time (in milliseconds) taken to ingest all of the records.
+         */
+        public long getElapsed() {
+            return this.nanos / 1000000;
+        }
+
+        /**
+         * @return Records ingested per second.
+         */
+        public double getThroughput() {
+            return (nanos > 0) ? records * 1e9 / nanos : 0;
+        }
+    }
+}
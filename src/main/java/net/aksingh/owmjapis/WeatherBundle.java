@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>
+ * Current weather, hourly forecast and daily forecast of a city, fetched together.
+ * Each of them is a {@link Part} with its own status, so that one failing or arriving
+ * late does not keep the others from being used.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @see net.aksingh.owmjapis.OpenWeatherMap#fetchAll(long, byte)
+ * @since 2.5.0.6
+ */
+public class WeatherBundle {
+    private final long cityCode;
+
+    private final Part<CurrentWeather> currentWeather;
+    private final Part<HourlyForecast> hourlyForecast;
+    private final Part<DailyForecast> dailyForecast;
+
+    WeatherBundle(long cityCode, Part<CurrentWeather> currentWeather, Part<HourlyForecast> hourlyForecast,
+                  Part<DailyForecast> dailyForecast) {
+        this.cityCode = cityCode;
+        this.currentWeather = currentWeather;
+        this.hourlyForecast = hourlyForecast;
+        this.dailyForecast = dailyForecast;
+    }
+
+    /**
+     * @return <code>true</code> if all three parts are available, otherwise <code>false</code>.
+     */
+    public boolean isComplete() {
+        return currentWeather.isAvailable() && hourlyForecast.isAvailable() && dailyForecast.isAvailable();
+    }
+
+    public long getCityCode() {
+        return this.cityCode;
+    }
+
+    public Part<CurrentWeather> getCurrentWeatherPart() {
+        return this.currentWeather;
+    }
+
+    public Part<HourlyForecast> getHourlyForecastPart() {
+        return this.hourlyForecast;
+    }
+
+    public Part<DailyForecast> getDailyForecastPart() {
+        return this.dailyForecast;
+    }
+
+    /**
+     * Status of a part of the bundle
+     */
+    public static enum Status {
+        /**
+         * Arrived, and valid
+         */
+        OK,
+        /**
+         * Arrived, but not valid, e.g., OWM.org gave an error
+         */
+        INVALID,
+        /**
+         * Failed with an exception
+         */
+        FAILED,
+        /**
+         * Not arrived before the timeout
+         */
+        TIMED_OUT
+    }
+
+    /**
+     * <p>
+     * A part of the bundle: the data if it arrived, with its status.
+     * </p>
+     */
+    public static class Part<T extends AbstractResponse> {
+        private final T value;
+        private final Status status;
+        private final Throwable error;
+
+        private Part(T value, Status status, Throwable error) {
+            this.value = value;
+            this.status = status;
+            this.error = error;
+        }
+
+        /**
+         * @return Part of the data, as valid or not.
+         */
+        static <T extends AbstractResponse> Part<T> of(T value) {
+            return new Part<T>(value, (value != null && value.isValid()) ? Status.OK : Status.INVALID, null);
+        }
+
+        /**
+         * @return Part failed with the exception.
+         */
+        static <T extends AbstractResponse> Part<T> failed(Throwable error) {
+            return new Part<T>(null, Status.FAILED, error);
+        }
+
+        /**
+         * Waits for the future until the deadline, and cancels it if it has not completed by then.
+         */
+        static <T extends AbstractResponse> Part<T> await(Future<T> future, long deadline) {
+            try {
+                long timeout = Math.max(0, deadline - System.currentTimeMillis());
+                return of(future.get(timeout, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return new Part<T>(null, Status.TIMED_OUT, e);
+            } catch (ExecutionException e) {
+                // the request may notice the deadline before the wait for it does
+                if (e.getCause() instanceof OWMTimeoutException) {
+                    return new Part<T>(null, Status.TIMED_OUT, e.getCause());
+                }
+                return failed(e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                return new Part<T>(null, Status.FAILED, e);
+            }
+        }
+
+        /**
+         * @return <code>true</code> if the data arrived and is valid, otherwise <code>false</code>.
+         */
+        public boolean isAvailable() {
+            return this.status == Status.OK;
+        }
+
+        /**
+         * @return Data if it arrived, otherwise <code>null</code>.
+         */
+        public T getValue() {
+            return this.value;
+        }
+
+        public Status getStatus() {
+            return this.status;
+        }
+
+        /**
+         * @return Exception if the part failed or timed out, otherwise <code>null</code>.
+         */
+        public Throwable getError() {
+            return this.error;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Polls OWM.org for the weather of many cities, and tells listeners when it changes.
+ * </p>
+ * <p>
+ * Each subscription covers a set of cities and one kind of data, refreshed at its own interval.
+ * The requests of a subscription are spread evenly over its interval, with some jitter, so they
+ * neither come in bursts nor fall into step with other subscriptions. A listener is told about
+ * a city only when the data parsed for it differs from the last data it was told about.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>WeatherPoller poller = new WeatherPoller(owm, 4);</code><br>
+ * <code>poller.subscribeCurrentWeather(cityCodes, 10 * 60 * 1000L, listener);</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/18
+ * @since 2.5.0.6
+ */
+public class WeatherPoller {
+    /*
+    Key, at top level and under "sys", whose value OWM.org changes on every request, whether the weather changed or not
+     */
+    private static final String JSON_MESSAGE = "\"message\"";
+
+    private final OpenWeatherMap owm;
+    private final ScheduledExecutorService executor;
+    private final Random random;
+
+    /**
+     * Constructor
+     *
+     * @param owm     Client used for getting data from OWM.org
+     * @param threads Number of threads for making the requests
+     */
+    public WeatherPoller(OpenWeatherMap owm, int threads) {
+        this(owm, Executors.newScheduledThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "owm-poller");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param owm      Client used for getting data from OWM.org
+     * @param executor Executor for making the requests
+     */
+    public WeatherPoller(OpenWeatherMap owm, ScheduledExecutorService executor) {
+        this.owm = owm;
+        this.executor = executor;
+        this.random = new Random();
+    }
+
+    /**
+     * Subscribes to the current weather of the cities.
+     *
+     * @param cityCodes Codes of the cities
+     * @param interval  Time (in milliseconds) between refreshes of a city
+     * @param listener  Listener to be told about changes
+     * @return Subscription, for cancelling it
+     */
+    public Subscription subscribeCurrentWeather(Collection<Long> cityCodes, long interval,
+                                                Listener<CurrentWeather> listener) {
+        return subscribe(cityCodes, interval, listener, new Fetcher<CurrentWeather>() {
+            public CurrentWeather fetch(long cityCode) {
+                return owm.currentWeatherByCityCode(cityCode);
+            }
+        });
+    }
+
+    /**
+     * Subscribes to the hourly forecast of the cities.
+     *
+     * @param cityCodes Codes of the cities
+     * @param interval  Time (in milliseconds) between refreshes of a city
+     * @param listener  Listener to be told about changes
+     * @return Subscription, for cancelling it
+     */
+    public Subscription subscribeHourlyForecast(Collection<Long> cityCodes, long interval,
+                                                Listener<HourlyForecast> listener) {
+        return subscribe(cityCodes, interval, listener, new Fetcher<HourlyForecast>() {
+            public HourlyForecast fetch(long cityCode) {
+                return owm.hourlyForecastByCityCode(cityCode);
+            }
+        });
+    }
+
+    /**
+     * Subscribes to the daily forecast of the cities.
+     *
+     * @param cityCodes Codes of the cities
+     * @param count     Count of days to be forecasted
+     * @param interval  Time (in milliseconds) between refreshes of a city
+     * @param listener  Listener to be told about changes
+     * @return Subscription, for cancelling it
+     */
+    public Subscription subscribeDailyForecast(Collection<Long> cityCodes, final byte count, long interval,
+                                               Listener<DailyForecast> listener) {
+        return subscribe(cityCodes, interval, listener, new Fetcher<DailyForecast>() {
+            public DailyForecast fetch(long cityCode) {
+                return owm.dailyForecastByCityCode(cityCode, count);
+            }
+        });
+    }
+
+    /**
+     * Stops all subscriptions, and the executor.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T extends AbstractResponse> Subscription subscribe(Collection<Long> cityCodes, long interval,
+                                                                Listener<T> listener, Fetcher<T> fetcher) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval cannot be less than 1 millisecond.");
+        }
+
+        Subscription subscription = new Subscription();
+        if (cityCodes.isEmpty()) {
+            return subscription;
+        }
+
+        // each city gets an equal slot of the interval, and is polled at a random point in its slot
+        long slot = Math.max(1, interval / cityCodes.size());
+        long start = System.currentTimeMillis();
+        int index = 0;
+        for (Long cityCode : cityCodes) {
+            Poll<T> poll = new Poll<T>(subscription, cityCode, start + index * slot, interval, slot, listener, fetcher);
+            subscription.add(poll);
+            poll.schedule();
+            index++;
+        }
+        return subscription;
+    }
+
+    /**
+     * @return Fingerprint of the raw response, ignoring what OWM.org changes on every request.
+     */
+    static long fingerprint(AbstractResponse response) {
+        String raw = response.getRawResponse();
+        if (raw == null) {
+            return 0;
+        }
+
+        // hashes the response around the values of "message", without parsing it again
+        long hash = Fnv1a.OFFSET_BASIS;
+        int from = 0;
+        int at;
+        while ((at = raw.indexOf(JSON_MESSAGE, from)) >= 0) {
+            hash = Fnv1a.hash(hash, raw, from, at);
+            from = skipValue(raw, at + JSON_MESSAGE.length());
+        }
+        return Fnv1a.hash(hash, raw, from, raw.length());
+    }
+
+    /**
+     * @return Index just past the JSON value after the key ending at <code>index</code>.
+     */
+    private static int skipValue(String json, int index) {
+        int length = json.length();
+        while (index < length && (json.charAt(index) == ':' || Character.isWhitespace(json.charAt(index)))) {
+            index++;
+        }
+        if (index < length && json.charAt(index) == '"') {
+            for (index++; index < length && json.charAt(index) != '"'; index++) {
+                if (json.charAt(index) == '\\') {
+                    index++;
+                }
+            }
+            return Math.min(index + 1, length);
+        }
+        while (index < length && ",}]".indexOf(json.charAt(index)) < 0) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * <p>
+     * Listener to be told about changes in the weather of a city.
+     * </p>
+     */
+    public interface Listener<T extends AbstractResponse> {
+        /**
+         * Called with the data of a city, the first time it is fetched and every time it changes.
+         *
+         * @param cityCode Code of the city
+         * @param weather  Data of the city
+         */
+        void onChange(long cityCode, T weather);
+
+        /**
+         * Called when getting the data of a city failed with an exception.
+         *
+         * @param cityCode Code of the city
+         * @param e        Exception
+         */
+        void onFailure(long cityCode, Exception e);
+    }
+
+    /**
+     * <p>
+     * Subscription to the weather of some cities.
+     * </p>
+     */
+    public static class Subscription {
+        private final List<Poll<?>> polls = new ArrayList<Poll<?>>();
+        private volatile boolean cancelled;
+
+        private synchronized void add(Poll<?> poll) {
+            polls.add(poll);
+        }
+
+        /**
+         * Stops polling for the cities of this subscription.
+         */
+        public synchronized void cancel() {
+            cancelled = true;
+            for (Poll<?> poll : polls) {
+                poll.cancel();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private interface Fetcher<T extends AbstractResponse> {
+        T fetch(long cityCode);
+    }
+
+    /**
+     * Polls one city. It keeps to a fixed schedule (first run, then every interval), and each
+     * run happens at a random point within the city's slot around its scheduled time.
+     */
+    private class Poll<T extends AbstractResponse> implements Runnable {
+        private final Subscription subscription;
+        private final long cityCode;
+        private final long firstRun;
+        private final long interval;
+        private final long slot;
+        private final Listener<T> listener;
+        private final Fetcher<T> fetcher;
+
+        private long runs;
+        private long lastFingerprint;
+        private boolean fingerprinted;
+        private volatile ScheduledFuture<?> future;
+
+        private Poll(Subscription subscription, long cityCode, long firstRun, long interval, long slot,
+                     Listener<T> listener, Fetcher<T> fetcher) {
+            this.subscription = subscription;
+            this.cityCode = cityCode;
+            this.firstRun = firstRun;
+            this.interval = interval;
+            this.slot = slot;
+            this.listener = listener;
+            this.fetcher = fetcher;
+        }
+
+        private void schedule() {
+            if (subscription.isCancelled() || executor.isShutdown()) {
+                return;
+            }
+
+            long jitter = (long) (random.nextDouble() * slot);
+            long next = firstRun + runs * interval + jitter;
+            long delay = Math.max(0, next - System.currentTimeMillis());
+            future = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> future = this.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        public void run() {
+            if (subscription.isCancelled()) {
+                return;
+            }
+
+            try {
+                T weather = fetcher.fetch(cityCode);
+                if (weather != null && weather.isValid()) {
+                    long fingerprint = fingerprint(weather);
+                    if (!fingerprinted || fingerprint != lastFingerprint) {
+                        lastFingerprint = fingerprint;
+                        fingerprinted = true;
+                        listener.onChange(cityCode, weather);
+                    }
+                }
+            } catch (Exception e) {
+                listener.onFailure(cityCode, e);
+            } finally {
+                runs++;
+                // skip the runs missed while this one was late, instead of catching up in a burst
+                long behind = (System.currentTimeMillis() - firstRun) / interval;
+                if (behind > runs) {
+                    runs = behind;
+                }
+                schedule();
+            }
+        }
+    }
+}
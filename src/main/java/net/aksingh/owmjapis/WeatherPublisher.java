@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.util.Collection;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Publishes the weather of a set of cities as a stream, fetching it only as fast as
+ * subscribers ask for it.
+ * </p>
+ * <p>
+ * The stream goes over the cities in turn, one request per item. With an interval, it starts
+ * over no sooner than the interval after the previous pass started, and goes on until cancelled;
+ * without one, it completes after a single pass. Every subscriber gets its own stream, and a city
+ * is fetched only when its subscriber has asked for an item, so slow subscribers slow fetching
+ * down instead of having parsed data queued up for them.
+ * </p>
+ * <p>
+ * A request failing in a way worth retrying (see {@link OWMException#isRetryable()}) leaves its
+ * city out of the pass; any other failure ends the stream with <code>onError</code>.
+ * </p>
+ * <p>
+ * {@link Subscriber} and {@link Subscription} follow the contract of
+ * <code>java.util.concurrent.Flow</code> (and Reactive Streams), so they can be adapted to
+ * either with a few lines, while this library keeps working on older Java and Android.
+ * </p>
+ *
+ * @param <T> Type of the weather data
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class WeatherPublisher<T extends AbstractResponse> {
+    private final long[] cityCodes;
+    private final long interval;
+    private final ScheduledExecutorService executor;
+    private final Fetcher<T> fetcher;
+
+    private WeatherPublisher(Collection<Long> cityCodes, long interval, ScheduledExecutorService executor,
+                             Fetcher<T> fetcher) {
+        this.cityCodes = new long[cityCodes.size()];
+        int index = 0;
+        for (Long cityCode : cityCodes) {
+            this.cityCodes[index++] = cityCode;
+        }
+        this.interval = interval;
+        this.executor = executor;
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * @param owm       Client used for getting data from OWM.org
+     * @param cityCodes Codes of the cities
+     * @param interval  Minimum time (in milliseconds) between passes over the cities, or 0 for a single pass
+     * @param executor  Executor for making the requests and signalling subscribers
+     * @return Publisher of the current weather of the cities
+     */
+    public static WeatherPublisher<CurrentWeather> currentWeather(final OpenWeatherMap owm, Collection<Long> cityCodes,
+                                                                  long interval, ScheduledExecutorService executor) {
+        return new WeatherPublisher<CurrentWeather>(cityCodes, interval, executor, new Fetcher<CurrentWeather>() {
+            public CurrentWeather fetch(long cityCode) {
+                return owm.currentWeatherByCityCode(cityCode);
+            }
+        });
+    }
+
+    /**
+     * @param owm       Client used for getting data from OWM.org
+     * @param cityCodes Codes of the cities
+     * @param interval  Minimum time (in milliseconds) between passes over the cities, or 0 for a single pass
+     * @param executor  Executor for making the requests and signalling subscribers
+     * @return Publisher of the hourly forecasts of the cities
+     */
+    public static WeatherPublisher<HourlyForecast> hourlyForecast(final OpenWeatherMap owm, Collection<Long> cityCodes,
+                                                                  long interval, ScheduledExecutorService executor) {
+        return new WeatherPublisher<HourlyForecast>(cityCodes, interval, executor, new Fetcher<HourlyForecast>() {
+            public HourlyForecast fetch(long cityCode) {
+                return owm.hourlyForecastByCityCode(cityCode);
+            }
+        });
+    }
+
+    /**
+     * @param owm       Client used for getting data from OWM.org
+     * @param cityCodes Codes of the cities
+     * @param count     Count of days to be forecasted
+     * @param interval  Minimum time (in milliseconds) between passes over the cities, or 0 for a single pass
+     * @param executor  Executor for making the requests and signalling subscribers
+     * @return Publisher of the daily forecasts of the cities
+     */
+    public static WeatherPublisher<DailyForecast> dailyForecast(final OpenWeatherMap owm, Collection<Long> cityCodes,
+                                                                final byte count, long interval,
+                                                                ScheduledExecutorService executor) {
+        return new WeatherPublisher<DailyForecast>(cityCodes, interval, executor, new Fetcher<DailyForecast>() {
+            public DailyForecast fetch(long cityCode) {
+                return owm.dailyForecastByCityCode(cityCode, count);
+            }
+        });
+    }
+
+    /**
+     * Subscribes to a new stream of the weather of the cities.
+     *
+     * @param subscriber Subscriber
+     */
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null.");
+        }
+        CitySubscription subscription = new CitySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (cityCodes.length == 0) {
+            subscription.drain();
+        }
+    }
+
+    /**
+     * <p>
+     * Receiver of a stream, as <code>java.util.concurrent.Flow.Subscriber</code>.
+     * </p>
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * <p>
+     * Link between a publisher and a subscriber, as <code>java.util.concurrent.Flow.Subscription</code>.
+     * </p>
+     */
+    public interface Subscription {
+        /**
+         * Asks for up to <code>n</code> more items.
+         *
+         * @param n Count of items, more than 0
+         */
+        void request(long n);
+
+        /**
+         * Stops the stream. Items already being fetched may still be delivered.
+         */
+        void cancel();
+    }
+
+    private interface Fetcher<T extends AbstractResponse> {
+        T fetch(long cityCode);
+    }
+
+    /**
+     * Stream of one subscriber. All its signals are made from <code>run</code>, which is
+     * never running more than once at a time.
+     */
+    private class CitySubscription implements Subscription, Runnable {
+        private final Subscriber<? super T> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile Throwable badRequest;
+
+        private int position;
+        private long passStart;
+
+        private CitySubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Count of items requested must be more than 0.");
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                    if (current == Long.MAX_VALUE) {
+                        break;
+                    }
+                } while (!demand.compareAndSet(current, (current + n < 0) ? Long.MAX_VALUE : current + n));
+            }
+            drain();
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void drain() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        public void run() {
+            int missed = pending.get();
+            while (true) {
+                while (!cancelled) {
+                    if (badRequest != null) {
+                        cancelled = true;
+                        subscriber.onError(badRequest);
+                        return;
+                    }
+                    // completes without waiting for demand, as there's nothing left to deliver
+                    if (position == cityCodes.length && (interval <= 0 || cityCodes.length == 0)) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (demand.get() == 0) {
+                        break;
+                    }
+
+                    if (position == cityCodes.length) {
+                        long wait = passStart + interval - System.currentTimeMillis();
+                        if (wait > 0) {
+                            // resumes the loop later, still counted as pending so that requests meanwhile don't
+                            executor.schedule(this, wait, TimeUnit.MILLISECONDS);
+                            return;
+                        }
+                        position = 0;
+                    }
+                    if (position == 0) {
+                        passStart = System.currentTimeMillis();
+                    }
+
+                    T weather;
+                    try {
+                        weather = fetcher.fetch(cityCodes[position++]);
+                    } catch (OWMException e) {
+                        if (e.isRetryable()) { // the city is left out of this pass, and tried again in the next
+                            continue;
+                        }
+                        cancelled = true;
+                        subscriber.onError(e);
+                        return;
+                    } catch (RuntimeException e) {
+                        cancelled = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(weather);
+                    } catch (RuntimeException e) {
+                        cancelled = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                }
+
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the AbstractResponse's scan of response codes in raw responses.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class AbstractResponseTest {
+
+    @Test
+    public void scansNumericAndQuotedCodes() {
+        assertEquals(200, AbstractResponse.scanResponseCode("{\"coord\":{\"lon\":85.3},\"name\":\"Kathmandu\",\"cod\":200}"));
+        assertEquals(404, AbstractResponse.scanResponseCode("{\"cod\":\"404\",\"message\":\"city not found\"}"));
+        assertEquals(401, AbstractResponse.scanResponseCode("{ \"cod\" : 401, \"message\": \"Invalid API key.\"}"));
+    }
+
+    @Test
+    public void skipsCodeAsValue() {
+        assertEquals(200, AbstractResponse.scanResponseCode("{\"name\":\"cod\",\"cod\":200}"));
+    }
+
+    @Test
+    public void findsNoCodeWhereThereIsNone() {
+        assertEquals(Integer.MIN_VALUE, AbstractResponse.scanResponseCode("{\"name\":\"Kathmandu\"}"));
+        assertEquals(Integer.MIN_VALUE, AbstractResponse.scanResponseCode("{\"cod\":null}"));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests that parsing fixed payloads, and building addresses, allocate no more bytes per
+ * call than their budgets in <code>allocation-budgets.properties</code>, as counted by the
+ * JVM for the current thread. Skipped on JVMs which don't count allocation per thread.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class AllocationBudgetTest {
+    private static final int WARM_UP_CALLS = 1000;
+    private static final int MEASURED_CALLS = 200;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static Properties budgets;
+
+    private final OpenWeatherMap owm =
+            new OpenWeatherMap(OpenWeatherMap.Units.METRIC, OpenWeatherMap.Language.ENGLISH, "0123456789abcdef");
+    private final OpenWeatherMap.OWMAddress owmAddress = owm.getOwmAddressInstance();
+
+    @BeforeClass
+    public static void loadBudgets() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        budgets = new Properties();
+        InputStream in = AllocationBudgetTest.class.getResourceAsStream("allocation-budgets.properties");
+        try {
+            budgets.load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void parsingStaysWithinBudget() throws Exception {
+        final String current = OWMStandInServer.payload("current-storm");
+        final String hourly = OWMStandInServer.payload("hourly-40");
+        final String daily = OWMStandInServer.payload("daily-16");
+
+        assertWithinBudget("currentWeatherFromRawResponse", new Call() {
+            public Object call() {
+                return owm.currentWeatherFromRawResponse(current);
+            }
+        });
+        assertWithinBudget("hourlyForecastFromRawResponse", new Call() {
+            public Object call() {
+                return owm.hourlyForecastFromRawResponse(hourly);
+            }
+        });
+        assertWithinBudget("dailyForecastFromRawResponse", new Call() {
+            public Object call() {
+                return owm.dailyForecastFromRawResponse(daily);
+            }
+        });
+    }
+
+    @Test
+    public void buildingAddressesStaysWithinBudget() throws Exception {
+        assertWithinBudget("currentWeatherByCityCode", new Call() {
+            public Object call() {
+                return owmAddress.currentWeatherByCityCode(2643743L);
+            }
+        });
+        assertWithinBudget("currentWeatherByCityName", new Call() {
+            public Object call() throws UnsupportedEncodingException {
+                return owmAddress.currentWeatherByCityName("London");
+            }
+        });
+        assertWithinBudget("dailyForecastByCoordinates", new Call() {
+            public Object call() {
+                return owmAddress.dailyForecastByCoordinates(51.51f, -0.13f, (byte) 7);
+            }
+        });
+    }
+
+    private static void assertWithinBudget(String name, Call call) throws Exception {
+        String key = "allocation." + name;
+        long budget = Long.parseLong(System.getProperty("owm." + key, budgets.getProperty(key)));
+
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            call.call();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.call();
+        }
+        long perCall = (threads.getThreadAllocatedBytes(thread) - before) / MEASURED_CALLS;
+
+        assertTrue(name + " allocated " + perCall + " bytes per call, over its budget of " + budget,
+                perCall <= budget);
+    }
+
+    private interface Call {
+        Object call() throws Exception;
+    }
+}
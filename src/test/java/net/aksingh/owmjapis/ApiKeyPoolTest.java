@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the ApiKeyPool's choice of keys and its usage counters.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/18
+ * @since 2.5.0.6
+ */
+public class ApiKeyPoolTest {
+
+    @Test
+    public void spreadsRequestsInProportionToBudgets() {
+        ApiKeyPool pool = new ApiKeyPool().addApiKey("small", 10).addApiKey("large", 30);
+
+        int small = 0;
+        for (int i = 0; i < 40; i++) {
+            if ("small".equals(pool.acquire())) {
+                small++;
+            }
+        }
+
+        assertEquals(10, small);
+    }
+
+    @Test
+    public void leavesOutRejectedKeys() {
+        ApiKeyPool pool = new ApiKeyPool().addApiKey("limited", 1000).addApiKey("revoked", 1000).addApiKey("fine", 1);
+
+        pool.report("limited", 429);
+        pool.report("revoked", 401);
+
+        assertEquals("fine", pool.acquire());
+        assertEquals("fine", pool.acquire());
+
+        List<ApiKeyPool.Usage> usage = pool.getUsage();
+        assertTrue(usage.get(0).isSuspended());
+        assertEquals(1, usage.get(0).getRateLimitedCount());
+        assertEquals(1, usage.get(1).getUnauthorizedCount());
+        assertEquals(2, usage.get(2).getRequests());
+        assertEquals(2, usage.get(2).getRequestsInLastMinute());
+    }
+
+    @Test
+    public void fallsBackToKeyComingBackFirst() {
+        ApiKeyPool pool = new ApiKeyPool(60 * 1000L, 60 * 60 * 1000L).addApiKey("revoked", 10).addApiKey("limited", 10);
+
+        pool.report("revoked", 401);
+        pool.report("limited", 429);
+
+        assertEquals("limited", pool.acquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullApiKey() {
+        new ApiKeyPool().addApiKey(null, 60);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyApiKey() {
+        new ApiKeyPool().addApiKey("", 60);
+    }
+
+    @Test
+    public void emptyPoolHasNoKey() {
+        assertNull(new ApiKeyPool().acquire());
+    }
+}
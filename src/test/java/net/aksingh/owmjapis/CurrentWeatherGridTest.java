@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the CurrentWeatherGrid's interpolation, and its incremental updates.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/18
+ * @since 2.5.0.6
+ */
+public class CurrentWeatherGridTest {
+    private final OpenWeatherMap owm = new OpenWeatherMap("");
+
+    @Test
+    public void weighsCitiesByInverseDistance() {
+        CurrentWeatherGrid grid = newGrid();
+        grid.putAll(Arrays.asList(city(1, 10f, 10f, 280f), city(2, 12f, 10f, 290f), city(3, 10f, 10f, Float.NaN)));
+        grid.update();
+
+        assertEquals(2, grid.getCityCount());
+        assertEquals(280f, grid.getValue(20, 20), 0.001f);
+        assertEquals(285f, grid.getValue(22, 20), 0.001f);
+        assertTrue(grid.getValue(21, 20) < 285f);
+        assertTrue(Float.isNaN(grid.getValue(80, 80)));
+    }
+
+    @Test
+    public void updatesOnlyTilesNearChangedCities() {
+        CurrentWeatherGrid grid = newGrid();
+        grid.putAll(Arrays.asList(city(1, 10f, 10f, 280f), city(2, 12f, 10f, 290f), city(4, 40f, 40f, 270f)));
+        assertEquals(16, grid.update());
+
+        grid.put(city(1, 10f, 10f, 300f));
+        grid.remove(2);
+        int tiles = grid.update();
+        assertTrue(tiles > 0 && tiles < 16);
+        assertEquals(300f, grid.getValue(24, 20), 0.001f);
+        assertEquals(0, grid.update());
+
+        CurrentWeatherGrid full = newGrid();
+        full.putAll(Arrays.asList(city(1, 10f, 10f, 300f), city(4, 40f, 40f, 270f)));
+        full.update();
+        float[] incremental = new float[101 * 101];
+        float[] recomputed = new float[101 * 101];
+        grid.getValues(incremental);
+        full.getValues(recomputed);
+        assertArrayEquals(recomputed, incremental, 0f);
+    }
+
+    private CurrentWeatherGrid newGrid() {
+        return new CurrentWeatherGrid(0f, 0f, 50f, 50f, 101, 101, CurrentWeatherGrid.TEMPERATURE).withRadius(300);
+    }
+
+    private CurrentWeather city(long cityCode, float lat, float lon, float temp) {
+        String main = Float.isNaN(temp) ? "" : ",\"main\":{\"temp\":" + temp + "}";
+        return owm.currentWeatherFromRawResponse("{\"coord\":{\"lon\":" + lon + ",\"lat\":" + lat + "}" + main
+                + ",\"id\":" + cityCode + ",\"cod\":200}");
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the DailyForecast's views over a widened forecast.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class DailyForecastSliceTest {
+
+    private static DailyForecast forecastOf(int count) {
+        StringBuilder json = new StringBuilder("{\"cod\":\"200\",\"cnt\":").append(count).append(",\"list\":[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"dt\":").append(1424000000L + i * 86400L).append("}");
+        }
+        return new DailyForecast(new JSONObject(json.append("]}").toString()));
+    }
+
+    @Test
+    public void sliceSharesForecastsAndCountsOnlyItsOwn() {
+        DailyForecast full = forecastOf(16);
+        DailyForecast slice = full.slice(3);
+
+        assertEquals(16, full.getForecastCount());
+        assertEquals(3, slice.getForecastCount());
+        assertTrue(slice.isValid());
+        assertSame(full.getForecastInstance(2), slice.getForecastInstance(2));
+        assertSame(full.getCityInstance(), slice.getCityInstance());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void sliceHidesForecastsBeyondItsCount() {
+        forecastOf(16).slice(3).getForecastInstance(3);
+    }
+
+    @Test
+    public void sliceWiderThanForecastIsForecastItself() {
+        DailyForecast full = forecastOf(7);
+
+        assertSame(full, full.slice(16));
+    }
+
+    @Test
+    public void sliceKeepsProvenance() {
+        Provenance.Builder fetch = new Provenance.Builder();
+        fetch.fetched(1000, 512, "key");
+        fetch.parsed();
+        DailyForecast full = forecastOf(16);
+        full.setProvenance(fetch.build());
+
+        DailyForecast slice = full.slice(3);
+
+        assertSame(full.getProvenance(), slice.getProvenance());
+        assertEquals(Provenance.Source.MEMORY_CACHE, slice.getProvenance().fromMemoryCache().getSource());
+        assertEquals(512, slice.getProvenance().getBytes());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the HourlyForecastAggregator over the 8 forecasts of 2015-02-15 (UTC) in the corpus.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class HourlyForecastAggregatorTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private HourlyForecast forecast;
+
+    @Before
+    public void parse() throws Exception {
+        forecast = new OpenWeatherMap("").hourlyForecastFromRawResponse(OWMStandInServer.payload("hourly-8"));
+    }
+
+    @Test
+    public void rollsUpLocalDays() {
+        HourlyForecastAggregator aggregator = new HourlyForecastAggregator(
+                HourlyForecastAggregator.Windows.localDays(TimeZone.getTimeZone("Asia/Kolkata")),
+                HourlyForecastAggregator.TEMPERATURE, HourlyForecastAggregator.RAIN, HourlyForecastAggregator.SNOW);
+        List<HourlyForecastAggregator.Aggregate> aggregates = aggregator.aggregate(Arrays.asList(forecast, forecast));
+        HourlyForecastAggregator.Aggregate days = aggregates.get(1);
+
+        // 21:00 UTC is 02:30 of the next day in India
+        assertEquals(2, days.getWindowCount());
+        assertEquals(7, days.getCount(0, 0));
+        assertEquals(275.05f, days.getMin(0, 0), 0.001f);
+        assertEquals(281.83f, days.getMax(0, 0), 0.001f);
+        assertEquals(0.182f, days.getSum(0, 1), 0.0001f);
+        assertEquals(0.659f, days.getSum(0, 2), 0.0001f);
+        assertEquals(1, days.getCount(1, 0));
+        assertEquals(0f, days.getSum(1, 1), 0f);
+        assertEquals(1424025000000L, days.getWindowStart(1).getTime()); // 2015-02-15 18:30 UTC
+    }
+
+    @Test
+    public void slidesOverlappingWindows() {
+        HourlyForecastAggregator aggregator = new HourlyForecastAggregator(
+                HourlyForecastAggregator.Windows.sliding(6, 3, UTC), HourlyForecastAggregator.TEMPERATURE);
+        HourlyForecastAggregator.Aggregate windows = aggregator.aggregate(forecast);
+
+        assertEquals(8, windows.getWindowCount());
+        assertEquals(2, windows.getCount(0, 0));
+        assertEquals(278.84f, windows.getMean(0, 0), 0.001f);
+        assertEquals(1, windows.getCount(7, 0));
+
+        HourlyForecastAggregator.Aggregate parts = new HourlyForecastAggregator(
+                HourlyForecastAggregator.Windows.partsOfDay(UTC), HourlyForecastAggregator.TEMPERATURE).aggregate(forecast);
+        assertEquals(4, parts.getWindowCount());
+        assertEquals(2, parts.getCount(3, 0));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the HourlyForecastInterpolator over the 8 forecasts of 2015-02-15 (UTC) in the corpus.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class HourlyForecastInterpolatorTest {
+    private static final long FIRST = 1423958400000L; // 2015-02-15 00:00 UTC
+    private static final long HOUR = 60L * 60 * 1000;
+
+    private HourlyForecastInterpolator interpolator;
+
+    @Before
+    public void parse() throws Exception {
+        HourlyForecast forecast =
+                new OpenWeatherMap("").hourlyForecastFromRawResponse(OWMStandInServer.payload("hourly-8"));
+        interpolator = new HourlyForecastInterpolator(forecast,
+                HourlyForecastAggregator.TEMPERATURE, HourlyForecastInterpolator.WIND_DEGREE);
+    }
+
+    @Test
+    public void interpolatesLinearlyAndAlongShorterArc() {
+        assertEquals(8, interpolator.getSampleCount());
+        assertEquals(277.35f, interpolator.valueAt(0, FIRST), 0.001f);
+        assertEquals(278.84f, interpolator.valueAt(0, FIRST + 90 * 60 * 1000), 0.001f);
+        assertEquals(275.55f, interpolator.valueAt(0, FIRST + 21 * HOUR), 0.001f);
+        assertTrue(Float.isNaN(interpolator.valueAt(0, FIRST - 1)));
+        assertTrue(Float.isNaN(interpolator.valueAt(0, FIRST + 21 * HOUR + 1)));
+
+        // halfway from 12.7 to 343.0 degrees is across north, not south
+        assertEquals(357.85f, interpolator.valueAt(1, FIRST + 4 * HOUR + 30 * 60 * 1000), 0.01f);
+    }
+
+    @Test
+    public void answersArraysOfTimesAsSingleQueries() {
+        long[] times = new long[100];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = FIRST - HOUR + i * 15 * 60 * 1000L;
+        }
+        times[50] = FIRST + HOUR; // out of order
+        float[] values = new float[times.length];
+
+        interpolator.valuesAt(0, times, values);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(interpolator.valueAt(0, times[i]), values[i], 0f);
+        }
+    }
+}
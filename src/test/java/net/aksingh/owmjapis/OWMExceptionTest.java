@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import java.net.ConnectException;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the OWMException's subclasses, their messages and retryability.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OWMExceptionTest {
+
+    @Test
+    public void takesErrorMessageFromBody() {
+        OWMHttpException e = new OWMHttpException(404, "{\"cod\":\"404\",\"message\":\"city not found\"}", 120);
+
+        assertEquals(404, e.getResponseCode());
+        assertEquals("city not found", e.getErrorMessage());
+        assertEquals("OWM.org responded with error 404: city not found", e.getMessage());
+        assertEquals(120, e.getElapsed());
+        assertFalse(e.isRetryable());
+    }
+
+    @Test
+    public void keepsBodyWhichIsNotJson() {
+        OWMHttpException e = new OWMHttpException(502, "<html>Bad Gateway</html>", 30);
+
+        assertFalse(e.hasErrorMessage());
+        assertEquals("<html>Bad Gateway</html>", e.getErrorBody());
+        assertEquals("OWM.org responded with error 502", e.getMessage());
+    }
+
+    @Test
+    public void retriesRateLimitsServerErrorsAndFailuresWithoutResponse() {
+        assertTrue(new OWMHttpException(429, null, 0).isRetryable());
+        assertTrue(new OWMHttpException(503, null, 0).isRetryable());
+        assertFalse(new OWMHttpException(401, null, 0).isRetryable());
+        assertTrue(new OWMTimeoutException(1000, null).isRetryable());
+        assertTrue(new OWMConnectionException(5, new ConnectException()).isRetryable());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the OWMMetrics' histograms, counters and Prometheus text.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OWMMetricsTest {
+
+    @Test
+    public void keepsEndpointsApart() {
+        OWMMetrics metrics = new OWMMetrics();
+        metrics.recordLatency(OWMMetrics.Endpoint.CURRENT_WEATHER, OWMTracer.OUTCOME_OK, 20000000L);
+        metrics.recordTransfer(OWMMetrics.Endpoint.CURRENT_WEATHER, 300, 900, 1000000L);
+        metrics.recordLatency(OWMMetrics.Endpoint.CURRENT_WEATHER, OWMTracer.OUTCOME_OK, 40000000L);
+        metrics.recordTransfer(OWMMetrics.Endpoint.CURRENT_WEATHER, 200, 600, 1000000L);
+        metrics.recordError(OWMMetrics.Endpoint.DAILY_FORECAST, "404");
+
+        OWMMetrics.Snapshot snapshot = metrics.getSnapshot();
+        OWMMetrics.EndpointSnapshot current = snapshot.getEndpoint(OWMMetrics.Endpoint.CURRENT_WEATHER);
+        OWMMetrics.EndpointSnapshot daily = snapshot.getEndpoint(OWMMetrics.Endpoint.DAILY_FORECAST);
+
+        assertEquals(2, current.getLatency().getCount());
+        assertEquals(60000000L, current.getLatency().getSum());
+        assertEquals(500, current.getWireBytes());
+        assertEquals(1500, current.getDecompressedBytes());
+        assertTrue(current.getErrors().isEmpty());
+
+        assertEquals(0, daily.getLatency().getCount());
+        assertEquals(Long.valueOf(1), daily.getErrors().get("404"));
+    }
+
+    @Test
+    public void keepsLatencyByOutcome() {
+        OWMMetrics metrics = new OWMMetrics();
+        metrics.recordLatency(OWMMetrics.Endpoint.HOURLY_FORECAST, OWMTracer.OUTCOME_OK, 20000000L);
+        metrics.recordLatency(OWMMetrics.Endpoint.HOURLY_FORECAST, OWMTracer.OUTCOME_TIMEOUT, 5000000000L);
+        metrics.recordLatency(OWMMetrics.Endpoint.HOURLY_FORECAST, OWMTracer.OUTCOME_TIMEOUT, 5000000000L);
+
+        OWMMetrics.EndpointSnapshot hourly = metrics.getSnapshot().getEndpoint(OWMMetrics.Endpoint.HOURLY_FORECAST);
+
+        assertEquals(3, hourly.getLatency().getCount());
+        assertEquals(5000000000L, hourly.getLatency().getQuantile(0.99));
+        assertEquals(1, hourly.getLatencyByOutcome().get(OWMTracer.OUTCOME_OK).getCount());
+        assertEquals(2, hourly.getLatencyByOutcome().get(OWMTracer.OUTCOME_TIMEOUT).getCount());
+        assertEquals(0, hourly.getWireBytes());
+    }
+
+    @Test
+    public void findsQuantilesByBucket() {
+        OWMMetrics metrics = new OWMMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.recordParse(OWMMetrics.Endpoint.HOURLY_FORECAST, 200000L);
+        }
+        metrics.recordParse(OWMMetrics.Endpoint.HOURLY_FORECAST, 3000000L);
+
+        OWMMetrics.HistogramSnapshot parse = metrics.getSnapshot()
+                .getEndpoint(OWMMetrics.Endpoint.HOURLY_FORECAST).getParse();
+
+        assertEquals(250000L, parse.getQuantile(0.99));
+        assertEquals(5000000L, parse.getQuantile(1.0));
+    }
+
+    @Test
+    public void writesPrometheusText() {
+        OWMMetrics metrics = new OWMMetrics();
+        metrics.recordLatency(OWMMetrics.Endpoint.DAILY_FORECAST, OWMTracer.OUTCOME_OK, 75000000L);
+        metrics.recordTransfer(OWMMetrics.Endpoint.DAILY_FORECAST, 100, 100, 0);
+        metrics.recordError(OWMMetrics.Endpoint.DAILY_FORECAST, OWMMetrics.ERROR_TIMEOUT);
+
+        String text = metrics.toPrometheus();
+
+        assertTrue(text.contains("# TYPE owm_request_duration_seconds histogram\n"));
+        assertTrue(text.contains("owm_request_duration_seconds_bucket{endpoint=\"daily\",outcome=\"ok\",le=\"0.05\"} 0\n"));
+        assertTrue(text.contains("owm_request_duration_seconds_bucket{endpoint=\"daily\",outcome=\"ok\",le=\"0.1\"} 1\n"));
+        assertTrue(text.contains("owm_request_duration_seconds_bucket{endpoint=\"daily\",outcome=\"ok\",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("owm_request_duration_seconds_sum{endpoint=\"daily\",outcome=\"ok\"} 0.075\n"));
+        assertTrue(text.contains("owm_wire_bytes_total{endpoint=\"daily\"} 100\n"));
+        assertTrue(text.contains("owm_errors_total{endpoint=\"daily\",status=\"timeout\"} 1\n"));
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * <p>
+ * Generates realistic responses of OWM.org for current weather, hourly forecast and daily
+ * forecast, with lists of varying length, optional rain and snow, one or more weather
+ * conditions, and fields missing now and then, for testing the parsers and caches at any
+ * scale with no network. The same seed always generates the same responses.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>OWMPayloadGenerator generator = new OWMPayloadGenerator(42L);</code><br>
+ * <code>CurrentWeather cwd = owm.currentWeatherFromRawResponse(generator.current());</code><br>
+ * <code>generator.write(writer, OWMMetrics.Endpoint.HOURLY_FORECAST, 1000000);</code>
+ * </p>
+ * <p>
+ * Generators are not thread-safe; use one per thread.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OWMPayloadGenerator {
+    private static final int MAX_HOURLY = 40;
+    private static final int MAX_DAILY = 16;
+
+    private static final long FIRST_DATE = 1420070400L; // 2015-01-01 00:00:00 UTC
+    private static final long DATE_RANGE = 365L * 24 * 60 * 60;
+    private static final int HOURS_3 = 3 * 60 * 60;
+    private static final int DAY = 24 * 60 * 60;
+
+    private static final Object[][] CITIES = {
+            {2643743L, "London", "GB", 51.51, -0.13},
+            {2988507L, "Paris", "FR", 48.85, 2.35},
+            {2950159L, "Berlin", "DE", 52.52, 13.41},
+            {5128581L, "New York", "US", 40.71, -74.01},
+            {1850147L, "Tokyo", "JP", 35.69, 139.69},
+            {1261481L, "New Delhi", "IN", 28.64, 77.22},
+            {3448439L, "Sao Paulo", "BR", -23.55, -46.64},
+            {2147714L, "Sydney", "AU", -33.87, 151.21},
+            {524901L, "Moscow", "RU", 55.75, 37.62},
+            {360630L, "Cairo", "EG", 30.06, 31.25}
+    };
+
+    private static final Object[][] CONDITIONS = {
+            {800, "Clear", "sky is clear", "01"},
+            {801, "Clouds", "few clouds", "02"},
+            {802, "Clouds", "scattered clouds", "03"},
+            {803, "Clouds", "broken clouds", "04"},
+            {804, "Clouds", "overcast clouds", "04"},
+            {701, "Mist", "mist", "50"},
+            {500, "Rain", "light rain", "10"},
+            {501, "Rain", "moderate rain", "10"},
+            {502, "Rain", "heavy intensity rain", "10"},
+            {211, "Thunderstorm", "thunderstorm", "11"},
+            {600, "Snow", "light snow", "13"},
+            {601, "Snow", "snow", "13"}
+    };
+
+    private final Random random;
+    private final SimpleDateFormat dateText;
+    private double missingRate = 0.05;
+    private double rainRate = 0.3;
+    private double snowRate = 0.1;
+
+    public OWMPayloadGenerator(long seed) {
+        this.random = new Random(seed);
+        this.dateText = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        this.dateText.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    /**
+     * @param missingRate Chance (0 to 1) of each optional field or block being left out
+     * @return This generator.
+     */
+    public OWMPayloadGenerator withMissingRate(double missingRate) {
+        this.missingRate = missingRate;
+        return this;
+    }
+
+    /**
+     * @param rainRate Chance (0 to 1) of a weather or forecast having rain
+     * @param snowRate Chance (0 to 1) of a weather or forecast having snow
+     * @return This generator.
+     */
+    public OWMPayloadGenerator withPrecipitation(double rainRate, double snowRate) {
+        this.rainRate = rainRate;
+        this.snowRate = snowRate;
+        return this;
+    }
+
+    /**
+     * @return Response of the endpoint, with a list of random length for forecasts.
+     */
+    public String next(OWMMetrics.Endpoint endpoint) {
+        switch (endpoint) {
+            case HOURLY_FORECAST:
+                return hourly(1 + random.nextInt(MAX_HOURLY));
+            case DAILY_FORECAST:
+                return daily(1 + random.nextInt(MAX_DAILY));
+            default:
+                return current();
+        }
+    }
+
+    /**
+     * Writes responses of the endpoint, one per line.
+     *
+     * @param out       Writer to write to; it's not closed
+     * @param endpoint  Endpoint of the responses
+     * @param responses Count of responses
+     */
+    public void write(Writer out, OWMMetrics.Endpoint endpoint, long responses) throws IOException {
+        for (long i = 0; i < responses; i++) {
+            out.write(next(endpoint));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * @return Response of current weather.
+     */
+    public String current() {
+        Object[] city = CITIES[random.nextInt(CITIES.length)];
+        long dt = date();
+        double temp = temperature();
+        StringBuilder json = new StringBuilder(640);
+
+        json.append('{');
+        if (present()) {
+            coord(json, city).append(',');
+        }
+        if (present()) {
+            json.append("\"sys\":{\"type\":1,\"id\":").append(1000 + random.nextInt(9000))
+                    .append(",\"message\":").append(round(random.nextDouble() / 10, 4))
+                    .append(",\"country\":\"").append(city[2])
+                    .append("\",\"sunrise\":").append(dt - 21600 + random.nextInt(3600))
+                    .append(",\"sunset\":").append(dt + 14400 + random.nextInt(3600))
+                    .append("},");
+        }
+        weather(json, 'd').append(',');
+        json.append("\"base\":\"cmc stations\",");
+        if (present()) {
+            json.append("\"main\":{\"temp\":").append(round(temp, 2))
+                    .append(",\"pressure\":").append(980 + random.nextInt(60))
+                    .append(",\"humidity\":").append(20 + random.nextInt(81))
+                    .append(",\"temp_min\":").append(round(temp - random.nextDouble() * 2, 2))
+                    .append(",\"temp_max\":").append(round(temp + random.nextDouble() * 2, 2))
+                    .append("},");
+        }
+        if (present()) {
+            json.append("\"wind\":{\"speed\":").append(round(random.nextDouble() * 15, 2))
+                    .append(",\"deg\":").append(random.nextInt(360));
+            if (present()) {
+                json.append(",\"gust\":").append(round(5 + random.nextDouble() * 20, 2));
+            }
+            json.append("},");
+        }
+        if (random.nextDouble() < rainRate) {
+            precipitation(json, "rain", 10).append(',');
+        }
+        if (random.nextDouble() < snowRate) {
+            precipitation(json, "snow", 5).append(',');
+        }
+        if (present()) {
+            json.append("\"clouds\":{\"all\":").append(random.nextInt(101)).append("},");
+        }
+        json.append("\"dt\":").append(dt)
+                .append(",\"id\":").append(city[0])
+                .append(",\"name\":\"").append(city[1])
+                .append("\",\"cod\":200}");
+        return json.toString();
+    }
+
+    /**
+     * @param count Count of forecasts, 3 hours apart
+     * @return Response of hourly forecast.
+     */
+    public String hourly(int count) {
+        Object[] city = CITIES[random.nextInt(CITIES.length)];
+        long dt = date() / HOURS_3 * HOURS_3;
+        double temp = temperature();
+        StringBuilder json = new StringBuilder(200 + count * 420);
+
+        header(json, city, count, 0.02);
+        for (int i = 0; i < count; i++, dt += HOURS_3) {
+            temp += random.nextGaussian();
+            double sea = 1000 + random.nextDouble() * 40;
+            boolean day = (dt % DAY) >= 21600 && (dt % DAY) < 64800;
+
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"dt\":").append(dt).append(",\"main\":{\"temp\":").append(round(temp, 2))
+                    .append(",\"temp_min\":").append(round(temp - 0.5, 2))
+                    .append(",\"temp_max\":").append(round(temp, 2));
+            if (present()) {
+                json.append(",\"pressure\":").append(round(sea - random.nextDouble() * 20, 2))
+                        .append(",\"sea_level\":").append(round(sea, 2))
+                        .append(",\"grnd_level\":").append(round(sea - random.nextDouble() * 20, 2));
+            }
+            json.append(",\"humidity\":").append(20 + random.nextInt(81))
+                    .append(",\"temp_kf\":0.5},");
+            weather(json, day ? 'd' : 'n').append(',');
+            if (present()) {
+                json.append("\"clouds\":{\"all\":").append(random.nextInt(101)).append("},");
+            }
+            if (present()) {
+                json.append("\"wind\":{\"speed\":").append(round(random.nextDouble() * 15, 2))
+                        .append(",\"deg\":").append(round(random.nextDouble() * 360, 5)).append("},");
+            }
+            json.append("\"sys\":{\"pod\":\"").append(day ? 'd' : 'n')
+                    .append("\"},\"dt_txt\":\"").append(dateText.format(new Date(dt * 1000))).append('"');
+            if (random.nextDouble() < rainRate) {
+                json.append(",\"rain\":{\"3h\":").append(round(random.nextDouble() * 5, 3)).append('}');
+            }
+            if (random.nextDouble() < snowRate) {
+                json.append(",\"snow\":{\"3h\":").append(round(random.nextDouble() * 3, 3)).append('}');
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * @param count Count of forecasts, a day apart
+     * @return Response of daily forecast.
+     */
+    public String daily(int count) {
+        Object[] city = CITIES[random.nextInt(CITIES.length)];
+        long dt = date() / DAY * DAY + 43200;
+        double temp = temperature();
+        StringBuilder json = new StringBuilder(200 + count * 330);
+
+        header(json, city, count, 0.01);
+        for (int i = 0; i < count; i++, dt += DAY) {
+            temp += random.nextGaussian() * 2;
+            double min = temp - 2 - random.nextDouble() * 4;
+            double max = temp + random.nextDouble() * 3;
+
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"dt\":").append(dt).append(",\"temp\":{\"day\":").append(round(temp, 2))
+                    .append(",\"min\":").append(round(min, 2))
+                    .append(",\"max\":").append(round(max, 2))
+                    .append(",\"night\":").append(round(min + 1, 2))
+                    .append(",\"eve\":").append(round(temp - 1, 2))
+                    .append(",\"morn\":").append(round(min + 0.5, 2)).append("},");
+            if (present()) {
+                json.append("\"pressure\":").append(round(990 + random.nextDouble() * 40, 2)).append(',');
+            }
+            json.append("\"humidity\":").append(20 + random.nextInt(81)).append(',');
+            weather(json, 'd');
+            if (present()) {
+                json.append(",\"speed\":").append(round(random.nextDouble() * 12, 2))
+                        .append(",\"deg\":").append(random.nextInt(360));
+            }
+            if (present()) {
+                json.append(",\"clouds\":").append(random.nextInt(101));
+            }
+            if (random.nextDouble() < rainRate) {
+                json.append(",\"rain\":").append(round(random.nextDouble() * 10, 2));
+            }
+            if (random.nextDouble() < snowRate) {
+                json.append(",\"snow\":").append(round(random.nextDouble() * 5, 2));
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private StringBuilder header(StringBuilder json, Object[] city, int count, double message) {
+        json.append("{\"cod\":\"200\",\"message\":").append(round(random.nextDouble() * message, 4))
+                .append(",\"city\":{\"id\":").append(city[0])
+                .append(",\"name\":\"").append(city[1]).append('"');
+        if (present()) {
+            json.append(',');
+            coord(json, city);
+        }
+        json.append(",\"country\":\"").append(city[2])
+                .append("\",\"population\":0},\"cnt\":").append(count)
+                .append(",\"list\":[");
+        return json;
+    }
+
+    private StringBuilder coord(StringBuilder json, Object[] city) {
+        return json.append("\"coord\":{\"lon\":").append(city[4])
+                .append(",\"lat\":").append(city[3]).append('}');
+    }
+
+    private StringBuilder weather(StringBuilder json, char pod) {
+        int count = (random.nextInt(4) == 0) ? 2 + random.nextInt(2) : 1;
+        json.append("\"weather\":[");
+        for (int i = 0; i < count; i++) {
+            Object[] condition = CONDITIONS[random.nextInt(CONDITIONS.length)];
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(condition[0])
+                    .append(",\"main\":\"").append(condition[1])
+                    .append("\",\"description\":\"").append(condition[2])
+                    .append("\",\"icon\":\"").append(condition[3]).append(pod).append("\"}");
+        }
+        return json.append(']');
+    }
+
+    private StringBuilder precipitation(StringBuilder json, String name, double max) {
+        json.append('"').append(name).append("\":{");
+        if (present()) {
+            json.append("\"1h\":").append(round(random.nextDouble() * max / 3, 2)).append(',');
+        }
+        return json.append("\"3h\":").append(round(random.nextDouble() * max, 2)).append('}');
+    }
+
+    private boolean present() {
+        return random.nextDouble() >= missingRate;
+    }
+
+    private long date() {
+        return FIRST_DATE + (long) (random.nextDouble() * DATE_RANGE);
+    }
+
+    private double temperature() {
+        return 250 + random.nextDouble() * 60;
+    }
+
+    private static double round(double value, int places) {
+        double scale = Math.pow(10, places);
+        return Math.round(value * scale) / scale;
+    }
+}
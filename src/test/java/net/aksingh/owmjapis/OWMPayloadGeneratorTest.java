@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests that the OWMPayloadGenerator's responses are repeatable, and parse as expected.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OWMPayloadGeneratorTest {
+
+    @Test
+    public void sameSeedGeneratesSameResponses() {
+        OWMPayloadGenerator first = new OWMPayloadGenerator(42L);
+        OWMPayloadGenerator second = new OWMPayloadGenerator(42L);
+
+        for (OWMMetrics.Endpoint endpoint : OWMMetrics.Endpoint.values()) {
+            assertEquals(first.next(endpoint), second.next(endpoint));
+        }
+        assertFalse(first.current().equals(new OWMPayloadGenerator(43L).current()));
+    }
+
+    @Test
+    public void generatedResponsesParse() throws Exception {
+        OpenWeatherMap owm = new OpenWeatherMap("");
+        OWMPayloadGenerator generator = new OWMPayloadGenerator(7L).withMissingRate(0.2);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(owm.currentWeatherFromRawResponse(generator.current()).hasCityName());
+            assertEquals(i % 40 + 1, owm.hourlyForecastFromRawResponse(generator.hourly(i % 40 + 1)).getForecastCount());
+            assertEquals(i % 16 + 1, owm.dailyForecastFromRawResponse(generator.daily(i % 16 + 1)).getForecastCount());
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>
+ * Stands in for OWM.org on the local host, serving <code>weather</code>, <code>forecast</code>
+ * and <code>forecast/daily</code> of the 2.5 API with payloads of the corpus in
+ * <code>src/test/resources</code>, or set ones. Latency, encoding, failure rate and rate
+ * limit are set as needed, for end-to-end tests and load benchmarks.
+ * </p>
+ * <p>
+ * <b>Sample code:</b><br>
+ * <code>OWMStandInServer server = OWMStandInServer.start().withLatency(20, 10).withEncoding(OWMStandInServer.Encoding.GZIP);</code><br>
+ * <code>owm.setBaseUrl(server.getBaseUrl());</code><br>
+ * <code>...</code><br>
+ * <code>server.stop();</code>
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OWMStandInServer {
+    private static final String BASE_PATH = "/data/2.5/";
+    private static final String PARAM_APPID = "appId=";
+    private static final String PARAM_COUNT = "cnt=";
+
+    private static final ConcurrentMap<String, String> CORPUS = new ConcurrentHashMap<String, String>();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, String> payloads = new ConcurrentHashMap<String, String>();
+    private final ConcurrentMap<String, Long> stalls = new ConcurrentHashMap<String, Long>();
+    private final Set<String> revokedApiKeys = new CopyOnWriteArraySet<String>();
+    private final Set<String> notFound = new CopyOnWriteArraySet<String>();
+    private final ConcurrentMap<String, byte[]> encoded = new ConcurrentHashMap<String, byte[]>();
+    private final AtomicLong requests = new AtomicLong();
+    private final Random random = new Random();
+
+    private volatile long latency;
+    private volatile long latencyJitter;
+    private volatile Encoding encoding = Encoding.IDENTITY;
+    private volatile double failureRate;
+    private volatile int requestsPerSecond;
+    private volatile String proxyAuthorization;
+
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger requestsInWindow = new AtomicInteger();
+
+    private OWMStandInServer() throws IOException {
+        // else headers and body go in separate packets, and Nagle's algorithm delays the body by ~40 ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "owm-stand-in");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext(BASE_PATH, new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    serve(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return Server started on a free port of the local host.
+     */
+    public static OWMStandInServer start() throws IOException {
+        OWMStandInServer server = new OWMStandInServer();
+        server.server.start();
+        return server;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return Base address to be set with {@link OpenWeatherMap#setBaseUrl(String)}.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + BASE_PATH;
+    }
+
+    /**
+     * @return Port of the server, for using it as a proxy with {@link OpenWeatherMap#addProxy(String, int)}.
+     * As a proxy, it serves the requests itself, whatever host they are for.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return Proxy-Authorization header of the latest request, or <code>null</code> if it had none.
+     */
+    public String getProxyAuthorization() {
+        return proxyAuthorization;
+    }
+
+    /**
+     * @return Count of requests served so far, including failed ones.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @param latency Time (in milliseconds) before responding
+     * @param jitter  Time (in milliseconds) up to which is randomly added to the latency
+     */
+    public OWMStandInServer withLatency(long latency, long jitter) {
+        this.latency = latency;
+        this.latencyJitter = jitter;
+        return this;
+    }
+
+    public OWMStandInServer withEncoding(Encoding encoding) {
+        this.encoding = encoding;
+        return this;
+    }
+
+    /**
+     * @param failureRate Share of requests, from 0 to 1, answered with 500
+     */
+    public OWMStandInServer withFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * @param requestsPerSecond Requests served per second, beyond which 429 is answered; 0 for no limit
+     */
+    public OWMStandInServer withRateLimit(int requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    /**
+     * @param endpoint Endpoint, i.e., "weather", "forecast" or "forecast/daily"
+     * @param payload  Response served for it instead of the corpus' one
+     */
+    public OWMStandInServer withPayload(String endpoint, String payload) {
+        payloads.put(endpoint, payload);
+        return this;
+    }
+
+    /**
+     * @param endpoint Endpoint, i.e., "weather", "forecast" or "forecast/daily"
+     * @param stall    Time (in milliseconds) added to the latency of the endpoint only
+     */
+    public OWMStandInServer withStall(String endpoint, long stall) {
+        stalls.put(endpoint, stall);
+        return this;
+    }
+
+    /**
+     * @param endpoint Endpoint, i.e., "weather", "forecast" or "forecast/daily", to respond
+     *                 to with HTTP status 404, as OWM.org does for some unknown cities
+     */
+    public OWMStandInServer withNotFound(String endpoint) {
+        notFound.add(endpoint);
+        return this;
+    }
+
+    /**
+     * @param apiKey API key to be rejected as unauthorized (401)
+     */
+    public OWMStandInServer withRevokedApiKey(String apiKey) {
+        revokedApiKeys.add(apiKey);
+        return this;
+    }
+
+    /**
+     * @param name Name of the payload, e.g., "current-clear" or "daily-16"
+     * @return Payload of the corpus, as OWM.org responds with it.
+     */
+    public static String payload(String name) throws IOException {
+        String payload = CORPUS.get(name);
+        if (payload == null) {
+            payload = load(name);
+            CORPUS.put(name, payload);
+        }
+        return payload;
+    }
+
+    private static String load(String name) throws IOException {
+        InputStream in = OWMStandInServer.class.getResourceAsStream("payloads/" + name + ".json");
+        if (in == null) {
+            throw new IOException("No payload named " + name);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toString("UTF-8").trim();
+        } finally {
+            in.close();
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        proxyAuthorization = exchange.getRequestHeaders().getFirst("Proxy-Authorization");
+        String endpoint = exchange.getRequestURI().getPath().substring(BASE_PATH.length());
+        String query = exchange.getRequestURI().getRawQuery();
+        query = (query != null) ? query : "";
+
+        Long stall = stalls.get(endpoint);
+        long wait = latency + ((latencyJitter > 0) ? (long) (random.nextDouble() * latencyJitter) : 0)
+                + ((stall != null) ? stall : 0);
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        if (!hasAppId(query) || isRevoked(query)) {
+            respond(exchange, 401, error(401, "Invalid API key. Please see http://openweathermap.org/faq#error401 for more info."));
+        } else if (isRateLimited()) {
+            respond(exchange, 429, error(429, "Your account is temporary blocked due to exceeding of requests limitation of your subscription type."));
+        } else if (failureRate > 0 && random.nextDouble() < failureRate) {
+            respond(exchange, 500, error(500, "Internal error"));
+        } else if (notFound.contains(endpoint)) {
+            respond(exchange, 404, error(404, "city not found"));
+        } else {
+            String payload = payloadFor(endpoint, query);
+            if (payload == null) {
+                respond(exchange, 404, error(404, "Internal error: 404"));
+            } else {
+                respond(exchange, 200, payload);
+            }
+        }
+    }
+
+    private static boolean hasAppId(String query) {
+        int at = query.indexOf(PARAM_APPID);
+        return at >= 0 && at + PARAM_APPID.length() < query.length() && query.charAt(at + PARAM_APPID.length()) != '&';
+    }
+
+    private boolean isRevoked(String query) {
+        for (String apiKey : revokedApiKeys) {
+            if (query.contains(PARAM_APPID + apiKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRateLimited() {
+        int limit = this.requestsPerSecond;
+        if (limit <= 0) {
+            return false;
+        }
+        // a window of a second starts with the first request after the previous one ended
+        long now = System.currentTimeMillis();
+        long start = window.get();
+        if (now - start >= 1000 && window.compareAndSet(start, now)) {
+            requestsInWindow.set(0);
+        }
+        return requestsInWindow.incrementAndGet() > limit;
+    }
+
+    private String payloadFor(String endpoint, String query) throws IOException {
+        String payload = payloads.get(endpoint);
+        if (payload != null) {
+            return payload;
+        }
+        if ("weather".equals(endpoint)) {
+            return payload("current-clear");
+        } else if ("forecast".equals(endpoint)) {
+            return payload("hourly-40");
+        } else if ("forecast/daily".equals(endpoint)) {
+            int count = countOf(query);
+            return payload((count <= 1) ? "daily-1" : (count <= 7) ? "daily-7" : "daily-16");
+        }
+        return null;
+    }
+
+    private static int countOf(String query) {
+        int at = query.indexOf(PARAM_COUNT);
+        if (at < 0) {
+            return 7;
+        }
+        int count = 0;
+        for (int i = at + PARAM_COUNT.length(); i < query.length() && Character.isDigit(query.charAt(i)); i++) {
+            count = count * 10 + (query.charAt(i) - '0');
+        }
+        return count;
+    }
+
+    private static String error(int code, String message) {
+        return "{\"cod\":" + code + ",\"message\":\"" + message + "\"}";
+    }
+
+    private void respond(HttpExchange exchange, int code, String body) throws IOException {
+        Encoding encoding = this.encoding;
+        String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (encoding != Encoding.IDENTITY && (accepted == null || !accepted.contains(encoding.name))) {
+            encoding = Encoding.IDENTITY;
+        }
+
+        byte[] bytes = encode(body, encoding);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (encoding != Encoding.IDENTITY) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding.name);
+        }
+        exchange.sendResponseHeaders(code, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+
+    /**
+     * @return Body encoded, compressed only once per body and encoding.
+     */
+    private byte[] encode(String body, Encoding encoding) throws IOException {
+        String key = encoding.name + ":" + body;
+        byte[] bytes = encoded.get(key);
+        if (bytes != null) {
+            return bytes;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        if (encoding == Encoding.GZIP) {
+            OutputStream out = new GZIPOutputStream(buffer);
+            out.write(body.getBytes("UTF-8"));
+            out.close();
+        } else if (encoding == Encoding.DEFLATE) { // raw, as OpenWeatherMap inflates it without a header
+            OutputStream out = new DeflaterOutputStream(buffer, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+            out.write(body.getBytes("UTF-8"));
+            out.close();
+        } else {
+            buffer.write(body.getBytes("UTF-8"));
+        }
+        bytes = buffer.toByteArray();
+        encoded.put(key, bytes);
+        return bytes;
+    }
+
+    /**
+     * Encodings of the responses; compressed ones are used only if the request accepts them.
+     */
+    public static enum Encoding {
+        IDENTITY("identity"),
+        GZIP("gzip"),
+        DEFLATE("deflate");
+
+        private final String name;
+
+        private Encoding(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the order of the events told to a tracer, and the outcomes of requests, against the
+ * local stand-in for OWM.org.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OWMTracerTest {
+    private static final long CITY = 2643743L;
+
+    private OWMStandInServer server;
+    private OpenWeatherMap owm;
+    private Recorder recorder;
+
+    @Before
+    public void start() throws Exception {
+        server = OWMStandInServer.start();
+        owm = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "0123456789abcdef");
+        owm.setBaseUrl(server.getBaseUrl());
+        recorder = new Recorder();
+        owm.setTracer(recorder);
+    }
+
+    @After
+    public void stop() {
+        server.stop();
+    }
+
+    @Test
+    public void tracesRequestPhasesInOrder() throws Exception {
+        owm.setApiKeyPool(new ApiKeyPool().addApiKey("pooled", 60));
+        owm.currentWeatherByCityCode(CITY);
+
+        assertEquals(Arrays.asList(
+                "requestStarted CURRENT_WEATHER id=2643743",
+                "apiKeyAcquired CURRENT_WEATHER id=2643743",
+                "requestEnded 200 " + OWMTracer.OUTCOME_OK,
+                "parseStarted CURRENT_WEATHER id=2643743",
+                "parseEnded true"), recorder.requestAndParseEvents());
+    }
+
+    @Test
+    public void tracesOutcomeOfHttpError() throws Exception {
+        server.withFailureRate(1.0);
+        try {
+            owm.currentWeatherByCityCode(CITY);
+            fail("Request should fail with the server's error.");
+        } catch (OWMHttpException e) {
+            assertEquals(500, e.getResponseCode());
+        }
+
+        assertEquals(Arrays.asList(
+                "requestStarted CURRENT_WEATHER id=2643743",
+                "requestEnded 500 " + OWMTracer.OUTCOME_HTTP_ERROR), recorder.requestAndParseEvents());
+    }
+
+    @Test
+    public void tracesOutcomeOfIoError() throws Exception {
+        server.stop(); // nothing listens on its port anymore
+        try {
+            owm.currentWeatherByCityCode(CITY);
+            fail("Request should fail without a server.");
+        } catch (OWMConnectionException e) {
+            assertTrue(e.isRetryable());
+        }
+
+        assertEquals(Arrays.asList(
+                "requestStarted CURRENT_WEATHER id=2643743",
+                "requestEnded -1 " + OWMTracer.OUTCOME_IO_ERROR), recorder.requestAndParseEvents());
+    }
+
+    @Test
+    public void tracesOutcomeOfTimeout() throws Exception {
+        server.withStall("weather", 5000);
+        try {
+            owm.currentWeatherByCityCode(CITY, 300);
+            fail("Stalled request should time out.");
+        } catch (OWMTimeoutException e) {
+            assertTrue(e.getElapsed() >= 200);
+        }
+
+        assertEquals(Arrays.asList(
+                "requestStarted CURRENT_WEATHER id=2643743",
+                "requestEnded -1 " + OWMTracer.OUTCOME_TIMEOUT), recorder.requestAndParseEvents());
+    }
+
+    /**
+     * Records the events told to it, in order.
+     */
+    private static class Recorder implements OWMTracer {
+        private final List<String> events = new ArrayList<String>();
+
+        private synchronized List<String> requestAndParseEvents() {
+            List<String> recorded = new ArrayList<String>();
+            for (String event : events) {
+                if (!event.startsWith("cacheLookedUp") && !event.startsWith("decompressed")) {
+                    recorded.add(event);
+                }
+            }
+            return recorded;
+        }
+
+        private synchronized void record(String event) {
+            events.add(event);
+        }
+
+        public Object requestStarted(OWMMetrics.Endpoint endpoint, String city) {
+            record("requestStarted " + endpoint + " " + city);
+            return null;
+        }
+
+        public void requestEnded(Object request, int responseCode, long wireBytes, long decompressedBytes, String outcome) {
+            record("requestEnded " + responseCode + " " + outcome);
+        }
+
+        public void cacheLookedUp(OWMMetrics.Endpoint endpoint, String city, String cache, boolean hit) {
+            record("cacheLookedUp " + cache + " " + hit);
+        }
+
+        public void apiKeyAcquired(OWMMetrics.Endpoint endpoint, String city, long nanos) {
+            record("apiKeyAcquired " + endpoint + " " + city);
+        }
+
+        public void decompressed(OWMMetrics.Endpoint endpoint, String city, long wireBytes, long decompressedBytes, long nanos) {
+            record("decompressed " + endpoint);
+        }
+
+        public Object parseStarted(OWMMetrics.Endpoint endpoint, String city) {
+            record("parseStarted " + endpoint + " " + city);
+            return null;
+        }
+
+        public void parseEnded(Object parse, int chars, boolean valid) {
+            record("parseEnded " + valid);
+        }
+    }
+}
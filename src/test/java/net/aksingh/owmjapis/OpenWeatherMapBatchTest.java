@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests parsing of batches of raw responses in parallel.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OpenWeatherMapBatchTest {
+
+    @Test
+    public void keepsOrderAndFailsOnlyBadResponses() throws Exception {
+        OpenWeatherMap owm = new OpenWeatherMap("");
+        OWMPayloadGenerator generator = new OWMPayloadGenerator(3L);
+        List<String> raw = new ArrayList<String>();
+        List<byte[]> responses = new ArrayList<byte[]>();
+        for (int i = 0; i < 500; i++) {
+            raw.add(generator.hourly(i % 40 + 1));
+            responses.add(raw.get(i).getBytes("UTF-8"));
+        }
+        responses.set(123, "{\"cod\":\"200\",\"list\":[".getBytes("UTF-8"));
+        responses.set(321, "{\"cod\":\"404\",\"message\":\"city not found\"}".getBytes("UTF-8"));
+
+        List<WeatherBundle.Part<HourlyForecast>> parts = owm.parseHourlyForecastBatch(responses);
+
+        assertEquals(500, parts.size());
+        assertEquals(WeatherBundle.Status.FAILED, parts.get(123).getStatus());
+        assertNotNull(parts.get(123).getError());
+        assertEquals(WeatherBundle.Status.INVALID, parts.get(321).getStatus());
+        for (int i = 0; i < 500; i++) {
+            if (i != 123 && i != 321) {
+                assertTrue(parts.get(i).isAvailable());
+                assertEquals(i % 40 + 1, parts.get(i).getValue().getForecastCount());
+                assertEquals(owm.hourlyForecastFromRawResponse(raw.get(i)).getRawResponse(),
+                        parts.get(i).getValue().getRawResponse());
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the caches of OpenWeatherMap, against the local stand-in for OWM.org.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OpenWeatherMapCacheTest {
+    private static final long LONDON = 2643743L;
+    private static final long PARIS = 2988507L;
+    private static final long BERLIN = 2950159L;
+
+    private OWMStandInServer server;
+    private OpenWeatherMap owm;
+
+    @Before
+    public void start() throws Exception {
+        server = OWMStandInServer.start();
+        owm = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "0123456789abcdef");
+        owm.setBaseUrl(server.getBaseUrl());
+    }
+
+    @After
+    public void stop() {
+        server.stop();
+    }
+
+    @Test
+    public void servesNotFoundFromCacheWithoutRequesting() throws Exception {
+        server.withNotFound("weather");
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                owm.currentWeatherByCityCode(LONDON);
+                fail("Unknown city should not be found.");
+            } catch (OWMHttpException e) {
+                assertEquals(404, e.getResponseCode());
+                assertEquals("city not found", e.getErrorMessage());
+            }
+        }
+        assertEquals(1, server.getRequestCount());
+
+        assertNotFound(PARIS); // cached per address
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void cachesNotFoundOnlyInBody() throws Exception {
+        server.withPayload("weather", "{\"cod\":\"404\",\"message\":\"city not found\"}");
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                owm.currentWeatherByCityCode(LONDON);
+                fail("Unknown city should not be found.");
+            } catch (OWMHttpException e) {
+                assertEquals(404, e.getResponseCode());
+                assertEquals("city not found", e.getErrorMessage());
+            }
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void requestsAgainOnceNotFoundExpires() throws Exception {
+        server.withNotFound("weather");
+        owm.setNotFoundCaching(true, 100);
+
+        assertNotFound(LONDON);
+        assertNotFound(LONDON);
+        assertEquals(1, server.getRequestCount());
+
+        Thread.sleep(150);
+        assertNotFound(LONDON);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void requestsEveryTimeWithoutNotFoundCaching() throws Exception {
+        server.withNotFound("weather");
+        owm.setNotFoundCaching(false);
+
+        assertNotFound(LONDON);
+        assertNotFound(LONDON);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void reusesDataParsedFromSameResponse() throws Exception {
+        owm.setParsedResponseReuse(true);
+
+        CurrentWeather first = owm.currentWeatherByCityCode(LONDON);
+        CurrentWeather second = owm.currentWeatherByCityCode(LONDON);
+
+        assertSame(first, second);
+        assertEquals(1, owm.getParseSkipCount());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void parsesChangedResponseAgain() throws Exception {
+        owm.setParsedResponseReuse(true);
+        CurrentWeather first = owm.currentWeatherByCityCode(LONDON);
+
+        server.withPayload("weather", OWMStandInServer.payload("current-clear")
+                .replace("\"temp\":277.41", "\"temp\":278.41"));
+        CurrentWeather changed = owm.currentWeatherByCityCode(LONDON);
+
+        assertNotSame(first, changed);
+        assertEquals(278.41f, changed.getMainInstance().getTemperature(), 0.001f);
+        assertEquals(0, owm.getParseSkipCount());
+    }
+
+    @Test
+    public void evictsAddressUsedLeastRecently() throws Exception {
+        owm.setParsedResponseReuse(true, 2);
+        CurrentWeather london = owm.currentWeatherByCityCode(LONDON);
+        CurrentWeather paris = owm.currentWeatherByCityCode(PARIS);
+        assertSame(london, owm.currentWeatherByCityCode(LONDON));
+
+        owm.currentWeatherByCityCode(BERLIN); // takes the place of Paris, used least recently
+
+        assertSame(london, owm.currentWeatherByCityCode(LONDON));
+        assertNotSame(paris, owm.currentWeatherByCityCode(PARIS));
+        assertEquals(2, owm.getParseSkipCount());
+    }
+
+    @Test
+    public void parsesEveryResponseWithoutReuse() throws Exception {
+        CurrentWeather first = owm.currentWeatherByCityCode(LONDON);
+
+        assertNotSame(first, owm.currentWeatherByCityCode(LONDON));
+        assertEquals(0, owm.getParseSkipCount());
+    }
+
+    private void assertNotFound(long cityCode) {
+        try {
+            owm.currentWeatherByCityCode(cityCode);
+            fail("Unknown city should not be found.");
+        } catch (OWMHttpException e) {
+            assertEquals(404, e.getResponseCode());
+        }
+    }
+}
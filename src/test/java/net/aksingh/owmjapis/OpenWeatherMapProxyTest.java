@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the rotation through proxies and their authentication, with local stand-ins for
+ * OWM.org as the proxies.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OpenWeatherMapProxyTest {
+    // never looked up, as requests through a proxy leave that to the proxy
+    private static final String UNREACHABLE_BASE_URL = "http://api.openweathermap.invalid/data/2.5/";
+
+    private OWMStandInServer first;
+    private OWMStandInServer second;
+    private OpenWeatherMap owm;
+
+    @Before
+    public void start() throws Exception {
+        first = OWMStandInServer.start();
+        second = OWMStandInServer.start();
+        owm = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "0123456789abcdef");
+        owm.setBaseUrl(UNREACHABLE_BASE_URL);
+    }
+
+    @After
+    public void stop() {
+        first.stop();
+        second.stop();
+    }
+
+    @Test
+    public void rotatesThroughAddedProxies() throws Exception {
+        owm.addProxy("127.0.0.1", first.getPort());
+        owm.addProxy("127.0.0.1", second.getPort());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("London", owm.currentWeatherByCityCode(2643743L).getCityName());
+        }
+        assertEquals(2, first.getRequestCount());
+        assertEquals(2, second.getRequestCount());
+
+        owm.removeProxies();
+        owm.setBaseUrl(second.getBaseUrl());
+        owm.currentWeatherByCityCode(2643743L);
+        assertEquals(2, first.getRequestCount());
+        assertEquals(3, second.getRequestCount());
+    }
+
+    @Test
+    public void padsCredentialsInProxyAuthorization() throws Exception {
+        // "ab:c" is 1 byte past a multiple of 3, "ab:cd" 2 bytes, and "ab:cde" none
+        assertEquals("Basic YWI6Yw==", authorizationFor("ab", "c"));
+        assertEquals("Basic YWI6Y2Q=", authorizationFor("ab", "cd"));
+        assertEquals("Basic YWI6Y2Rl", authorizationFor("ab", "cde"));
+    }
+
+    @Test
+    public void sendsNoProxyAuthorizationWithoutCredentials() throws Exception {
+        owm.setProxy("127.0.0.1", first.getPort());
+        owm.currentWeatherByCityCode(2643743L);
+        assertNull(first.getProxyAuthorization());
+    }
+
+    private String authorizationFor(String user, String pass) {
+        owm.setProxy("127.0.0.1", first.getPort(), user, pass);
+        owm.currentWeatherByCityCode(2643743L);
+        return first.getProxyAuthorization();
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests OpenWeatherMap end to end, against the local stand-in for OWM.org.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class OpenWeatherMapStandInTest {
+    private OWMStandInServer server;
+    private OpenWeatherMap owm;
+
+    @Before
+    public void start() throws Exception {
+        server = OWMStandInServer.start();
+        owm = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "0123456789abcdef");
+        owm.setBaseUrl(server.getBaseUrl());
+    }
+
+    @After
+    public void stop() {
+        server.stop();
+    }
+
+    @Test
+    public void fetchesEveryEndpointInEveryEncoding() throws Exception {
+        for (OWMStandInServer.Encoding encoding : OWMStandInServer.Encoding.values()) {
+            server.withEncoding(encoding);
+
+            assertEquals("London", owm.currentWeatherByCityCode(2643743L).getCityName());
+            assertEquals(40, owm.hourlyForecastByCityName("London").getForecastCount());
+            assertEquals(7, owm.dailyForecastByCoordinates(51.51f, -0.13f, (byte) 7).getForecastCount());
+        }
+
+        OWMMetrics.EndpointSnapshot current = owm.getMetrics().getSnapshot().getEndpoint(OWMMetrics.Endpoint.CURRENT_WEATHER);
+        assertEquals(3, current.getLatency().getCount());
+        assertEquals(2, current.getDecompression().getCount());
+    }
+
+    @Test
+    public void throwsRetryableErrorWhenRateLimited() throws Exception {
+        server.withRateLimit(1);
+        owm.currentWeatherByCityCode(2643743L);
+
+        try {
+            owm.currentWeatherByCityCode(2643743L);
+            fail("Second request within the second should be rate limited.");
+        } catch (OWMHttpException e) {
+            assertEquals(429, e.getResponseCode());
+            assertTrue(e.isRetryable());
+        }
+    }
+
+    @Test
+    public void retriesOnceWithNextKeyWhenKeyIsRejected() throws Exception {
+        server.withRevokedApiKey("revoked");
+        ApiKeyPool pool = new ApiKeyPool().addApiKey("revoked", 1000).addApiKey("fine", 1);
+        owm.setApiKeyPool(pool);
+
+        assertEquals("London", owm.currentWeatherByCityCode(2643743L).getCityName());
+
+        List<ApiKeyPool.Usage> usage = pool.getUsage();
+        assertEquals(1, usage.get(0).getUnauthorizedCount());
+        assertEquals(1, usage.get(1).getRequests());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void keepsToOneConfigurationPerRequestWhileSettersRun() throws Exception {
+        server.withRevokedApiKey("null");
+        final ApiKeyPool pool = new ApiKeyPool().addApiKey("pooled", 1000000);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        // widens the window between building an address and requesting it, for the setters to run in
+        owm.setTracer(new Pausing());
+
+        Thread setter = new Thread(new Runnable() {
+            public void run() {
+                for (int i = 0; running.get(); i++) {
+                    owm.setApiKeyPool((i % 2 == 0) ? pool : null);
+                    owm.setApiKey((i % 3 == 0) ? "0123456789abcdef" : "fedcba9876543210");
+                }
+            }
+        });
+        Thread[] requesters = new Thread[4];
+        for (int t = 0; t < requesters.length; t++) {
+            requesters[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 100; i++) {
+                            owm.currentWeatherByCityCode(2643743L);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+        }
+
+        setter.start();
+        for (Thread requester : requesters) {
+            requester.start();
+        }
+        for (Thread requester : requesters) {
+            requester.join();
+        }
+        running.set(false);
+        setter.join();
+
+        assertNull(String.valueOf(failure.get()), failure.get());
+        assertEquals(400, server.getRequestCount());
+    }
+
+    /**
+     * Pauses on every cache lookup, which comes after building the address of a request.
+     */
+    private static class Pausing implements OWMTracer {
+        public Object requestStarted(OWMMetrics.Endpoint endpoint, String city) {
+            return null;
+        }
+
+        public void requestEnded(Object request, int responseCode, long wireBytes, long decompressedBytes, String outcome) {
+        }
+
+        public void cacheLookedUp(OWMMetrics.Endpoint endpoint, String city, String cache, boolean hit) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public void apiKeyAcquired(OWMMetrics.Endpoint endpoint, String city, long nanos) {
+        }
+
+        public void decompressed(OWMMetrics.Endpoint endpoint, String city, long wireBytes, long decompressedBytes, long nanos) {
+        }
+
+        public Object parseStarted(OWMMetrics.Endpoint endpoint, String city) {
+            return null;
+        }
+
+        public void parseEnded(Object parse, int chars, boolean valid) {
+        }
+    }
+
+    @Test
+    public void usesApiKeyWhilePoolIsEmpty() throws Exception {
+        owm.setApiKeyPool(new ApiKeyPool());
+        assertEquals("London", owm.currentWeatherByCityCode(2643743L).getCityName());
+
+        OpenWeatherMap keyless = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, null);
+        keyless.setBaseUrl(server.getBaseUrl());
+        keyless.setApiKeyPool(new ApiKeyPool());
+        try {
+            keyless.currentWeatherByCityCode(2643743L);
+            fail("Request without any API key should not be made.");
+        } catch (OWMException e) {
+            assertTrue(e.getMessage().contains("pool of API keys is empty"));
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void throwsTimeoutWithinDeadlineWhenEndpointStalls() throws Exception {
+        server.withStall("weather", 5000);
+
+        long start = System.currentTimeMillis();
+        try {
+            owm.currentWeatherByCityCode(2643743L, 500);
+            fail("Stalled request should time out.");
+        } catch (OWMTimeoutException e) {
+            long elapsed = System.currentTimeMillis() - start;
+            assertTrue("Timed out after " + elapsed + " ms", elapsed < 1500);
+            assertTrue(e.getElapsed() >= 400);
+        }
+    }
+
+    @Test
+    public void countsLatencyOfTimedOutRequests() throws Exception {
+        server.withStall("weather", 5000);
+
+        try {
+            owm.currentWeatherByCityCode(2643743L, 500);
+            fail("Stalled request should time out.");
+        } catch (OWMTimeoutException e) {
+            OWMMetrics.EndpointSnapshot current = owm.getMetrics().getSnapshot()
+                    .getEndpoint(OWMMetrics.Endpoint.CURRENT_WEATHER);
+            assertEquals(1, current.getLatency().getCount());
+            assertTrue(current.getLatency().getSum() >= 400000000L);
+            assertEquals(1, current.getLatencyByOutcome().get(OWMTracer.OUTCOME_TIMEOUT).getCount());
+            assertNull(current.getLatencyByOutcome().get(OWMTracer.OUTCOME_OK));
+        }
+    }
+
+    @Test
+    public void cachesErrorOnlyInBody() throws Exception {
+        server.withPayload("weather", "{\"cod\":\"404\",\"message\":\"city not found\"}");
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                owm.currentWeatherByCityName("Nowhere");
+                fail("Unknown city should not be found.");
+            } catch (OWMHttpException e) {
+                assertEquals(404, e.getResponseCode());
+                assertEquals("city not found", e.getErrorMessage());
+            }
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void replaysRecordingWithoutServer() throws Exception {
+        ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+        OWMCassette recording = OWMCassette.record(recorded);
+        owm.setCassette(recording);
+        owm.currentWeatherByCityName("London");
+        owm.dailyForecastByCityName("London", (byte) 7);
+        recording.close();
+        server.stop();
+
+        OWMCassette replay = OWMCassette.replay(new ByteArrayInputStream(recorded.toByteArray()),
+                OWMCassette.Timing.AS_FAST_AS_POSSIBLE);
+        assertEquals(2, replay.size());
+
+        OpenWeatherMap other = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "fedcba9876543210");
+        other.setBaseUrl(server.getBaseUrl());
+        other.setCassette(replay);
+        assertEquals("London", other.currentWeatherByCityName("London").getCityName());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            OWMCassette.Result result = replay.play(other, executor);
+            assertEquals(2, result.getRequests());
+            assertEquals(0, result.getFailures());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void replaysRecordedFailuresAsTheyHappened() throws Exception {
+        server.withStall("weather", 5000);
+        ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+        OWMCassette recording = OWMCassette.record(recorded);
+        owm.setCassette(recording);
+        try {
+            owm.currentWeatherByCityName("London", 300);
+            fail("Stalled request should time out.");
+        } catch (OWMTimeoutException e) {
+            // recorded as timed out
+        }
+        server.stop();
+        try {
+            owm.hourlyForecastByCityName("London");
+            fail("Request to a stopped server should fail.");
+        } catch (OWMConnectionException e) {
+            // recorded as failed without a response
+        }
+        recording.close();
+
+        owm.setCassette(OWMCassette.replay(new ByteArrayInputStream(recorded.toByteArray()),
+                OWMCassette.Timing.AS_FAST_AS_POSSIBLE));
+        try {
+            owm.currentWeatherByCityName("London", 300);
+            fail("Timed out request should replay as timed out.");
+        } catch (OWMTimeoutException e) {
+            assertTrue(e.getElapsed() >= 200);
+        }
+        try {
+            owm.hourlyForecastByCityName("London");
+            fail("Failed request should replay as failed.");
+        } catch (OWMConnectionException e) {
+            assertTrue(e.isRetryable());
+        }
+    }
+
+    @Test
+    public void fetchesAllPartsEachWithItsOwnStatus() {
+        server.withStall("forecast", 5000);
+        server.withPayload("forecast/daily", "{\"cod\":\"404\",\"message\":\"city not found\"}");
+
+        long start = System.currentTimeMillis();
+        WeatherBundle bundle = owm.fetchAll(2643743L, (byte) 7, 1000);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("fetchAll took " + elapsed + " ms", elapsed < 3000);
+        assertFalse(bundle.isComplete());
+        assertEquals(WeatherBundle.Status.OK, bundle.getCurrentWeatherPart().getStatus());
+        assertEquals("London", bundle.getCurrentWeatherPart().getValue().getCityName());
+        assertEquals(WeatherBundle.Status.TIMED_OUT, bundle.getHourlyForecastPart().getStatus());
+        assertEquals(WeatherBundle.Status.FAILED, bundle.getDailyForecastPart().getStatus());
+        assertTrue(bundle.getDailyForecastPart().getError() instanceof OWMHttpException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBaseUrlWithoutTrailingSlash() {
+        owm.setBaseUrl("http://127.0.0.1/data/2.5");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedBaseUrl() {
+        owm.setBaseUrl("htp://127.0.0.1/data/2.5/");
+    }
+}
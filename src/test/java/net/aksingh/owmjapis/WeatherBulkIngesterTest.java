@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the WeatherBulkIngester over a gzipped bulk file.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/19
+ * @since 2.5.0.6
+ */
+public class WeatherBulkIngesterTest {
+
+    @Test
+    public void ingestsEveryLineOfGzippedFile() throws Exception {
+        File file = File.createTempFile("daily", ".json.gz");
+        file.deleteOnExit();
+        Writer out = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), "UTF-8");
+        try {
+            new OWMPayloadGenerator(1L).write(out, OWMMetrics.Endpoint.DAILY_FORECAST, 998);
+            out.write("{\"city\":{\"id\":2643743,\"name\":\"London\",\"country\":\"GB\"},\"time\":1423911600,"
+                    + "\"data\":[{\"dt\":1423911600,\"temp\":{\"day\":278.95}},{\"dt\":1423998000}]}\n");
+            out.write("\n");
+            out.write("{not json\n");
+        } finally {
+            out.close();
+        }
+
+        final AtomicInteger invalid = new AtomicInteger();
+        final AtomicInteger london = new AtomicInteger();
+        final Set<Long> failedLines = Collections.synchronizedSet(new HashSet<Long>());
+        WeatherBulkIngester.Result result = WeatherBulkIngester.forDailyForecasts()
+                .withBatchSize(64)
+                .withBatchesInFlight(2)
+                .ingest(file, new WeatherBulkIngester.Sink<DailyForecast>() {
+                    public void accept(DailyForecast data) {
+                        if (!data.isValid()) {
+                            invalid.incrementAndGet();
+                        }
+                        if (data.getForecastCount() == 2 && "London".equals(data.getCityInstance().getCityName())) {
+                            london.incrementAndGet();
+                        }
+                    }
+
+                    public void failed(long lineNumber, RuntimeException e) {
+                        failedLines.add(lineNumber);
+                    }
+                });
+
+        assertEquals(1000, result.getRecords());
+        assertEquals(1, result.getFailures());
+        assertEquals(Collections.singleton(1001L), failedLines);
+        assertEquals(0, invalid.get());
+        assertTrue(london.get() >= 1);
+    }
+
+    @Test
+    public void deliversRestOfBatchWhenSinkFails() throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            lines.append((i % 2 == 0) ? "{\"city\":{\"id\":" + i + "},\"data\":[]}" : "{not json").append('\n');
+        }
+
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        WeatherBulkIngester.Result result = WeatherBulkIngester.forDailyForecasts()
+                .withBatchSize(100)
+                .ingest(new ByteArrayInputStream(lines.toString().getBytes("UTF-8")),
+                        new WeatherBulkIngester.Sink<DailyForecast>() {
+                            public void accept(DailyForecast data) {
+                                accepted.incrementAndGet();
+                            }
+
+                            public void failed(long lineNumber, RuntimeException e) {
+                                failed.incrementAndGet();
+                                throw new IllegalStateException("Sink is broken");
+                            }
+                        });
+
+        assertEquals(10, result.getRecords());
+        assertEquals(5, result.getFailures());
+        assertEquals(5, accepted.get());
+        assertEquals(5, failed.get());
+    }
+}
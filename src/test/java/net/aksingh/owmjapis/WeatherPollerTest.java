@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests that the WeatherPoller tells listeners only about real changes, against the local
+ * stand-in for OWM.org.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/18
+ * @since 2.5.0.6
+ */
+public class WeatherPollerTest {
+    private static final long CITY = 2643743L;
+    private static final long INTERVAL = 50;
+
+    private OWMStandInServer server;
+    private WeatherPoller poller;
+
+    @Before
+    public void start() throws Exception {
+        server = OWMStandInServer.start();
+        OpenWeatherMap owm = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "0123456789abcdef");
+        owm.setBaseUrl(server.getBaseUrl());
+        poller = new WeatherPoller(owm, 1);
+    }
+
+    @After
+    public void stop() {
+        poller.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void fingerprintIgnoresMessageOnly() throws Exception {
+        String payload = OWMStandInServer.payload("current-clear");
+        long fingerprint = WeatherPoller.fingerprint(new CurrentWeather(new JSONObject(payload)));
+
+        assertEquals(fingerprint, WeatherPoller.fingerprint(
+                new CurrentWeather(new JSONObject(payload.replace("\"message\":0.0112", "\"message\":0.0345")))));
+        assertFalse(fingerprint == WeatherPoller.fingerprint(
+                new CurrentWeather(new JSONObject(payload.replace("\"temp\":277.41", "\"temp\":278.41")))));
+    }
+
+    @Test
+    public void notifiesOnRealChangesOnly() throws Exception {
+        String payload = OWMStandInServer.payload("current-clear");
+        final BlockingQueue<CurrentWeather> changes = new LinkedBlockingQueue<CurrentWeather>();
+        poller.subscribeCurrentWeather(Collections.singleton(CITY), INTERVAL,
+                new WeatherPoller.Listener<CurrentWeather>() {
+                    public void onChange(long cityCode, CurrentWeather weather) {
+                        changes.add(weather);
+                    }
+
+                    public void onFailure(long cityCode, Exception e) {
+                    }
+                });
+
+        assertNotNull(changes.poll(5, TimeUnit.SECONDS));
+
+        server.withPayload("weather", payload.replace("\"message\":0.0112", "\"message\":0.0345"));
+        long requests = server.getRequestCount();
+        while (server.getRequestCount() < requests + 3) {
+            Thread.sleep(INTERVAL);
+        }
+        assertTrue(changes.isEmpty());
+
+        server.withPayload("weather", payload.replace("\"temp\":277.41", "\"temp\":278.41"));
+        CurrentWeather changed = changes.poll(5, TimeUnit.SECONDS);
+        assertNotNull(changed);
+        assertEquals(278.41f, changed.getMainInstance().getTemperature(), 0.001f);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2013-2015 Ashutosh Kumar Singh <me@aksingh.net>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package net.aksingh.owmjapis;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * <p>
+ * Tests the WeatherPublisher's demand, completion, cancelling and errors, against the local
+ * stand-in for OWM.org.
+ * </p>
+ *
+ * @author agent
+ * @version 2026/10/18
+ * @since 2.5.0.6
+ */
+public class WeatherPublisherTest {
+    private static final List<Long> CITIES = Arrays.asList(2643743L, 2988507L, 2950159L);
+
+    private OWMStandInServer server;
+    private OpenWeatherMap owm;
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void start() throws Exception {
+        server = OWMStandInServer.start();
+        owm = new OpenWeatherMap(OpenWeatherMap.Units.METRIC, "0123456789abcdef");
+        owm.setBaseUrl(server.getBaseUrl());
+        executor = Executors.newScheduledThreadPool(1);
+    }
+
+    @After
+    public void stop() {
+        executor.shutdownNow();
+        server.stop();
+    }
+
+    @Test
+    public void completesAfterExactDemand() throws Exception {
+        Recorder recorder = new Recorder(CITIES.size());
+        WeatherPublisher.currentWeather(owm, CITIES, 0, executor).subscribe(recorder);
+
+        assertTrue(recorder.ended.await(5, TimeUnit.SECONDS));
+        assertEquals(3, recorder.items.size());
+        assertTrue(recorder.completed);
+    }
+
+    @Test
+    public void completesEmptyListWithoutDemand() throws Exception {
+        Recorder recorder = new Recorder(0);
+        WeatherPublisher.currentWeather(owm, Collections.<Long>emptyList(), 0, executor).subscribe(recorder);
+
+        assertTrue(recorder.ended.await(5, TimeUnit.SECONDS));
+        assertTrue(recorder.completed);
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void stopsWhenCancelled() throws Exception {
+        Recorder recorder = new Recorder(0) {
+            public void onNext(CurrentWeather item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        WeatherPublisher.currentWeather(owm, CITIES, 0, executor).subscribe(recorder);
+        recorder.subscription.request(10);
+
+        Thread.sleep(500);
+        assertEquals(1, recorder.items.size());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, recorder.ended.getCount());
+    }
+
+    @Test
+    public void endsWithErrorNotWorthRetrying() throws Exception {
+        server.withPayload("weather", "{\"cod\":\"404\",\"message\":\"city not found\"}");
+        Recorder recorder = new Recorder(CITIES.size());
+        WeatherPublisher.currentWeather(owm, CITIES, 0, executor).subscribe(recorder);
+
+        assertTrue(recorder.ended.await(5, TimeUnit.SECONDS));
+        assertTrue(recorder.error instanceof OWMHttpException);
+        assertEquals(0, recorder.items.size());
+    }
+
+    @Test
+    public void endsWithErrorThrownBySubscriber() throws Exception {
+        Recorder recorder = new Recorder(CITIES.size()) {
+            public void onNext(CurrentWeather item) {
+                throw new IllegalStateException("Subscriber failed");
+            }
+        };
+        WeatherPublisher.currentWeather(owm, CITIES, 0, executor).subscribe(recorder);
+
+        assertTrue(recorder.ended.await(5, TimeUnit.SECONDS));
+        assertTrue(recorder.error instanceof IllegalStateException);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    private static class Recorder implements WeatherPublisher.Subscriber<CurrentWeather> {
+        private final long initialDemand;
+        private final List<CurrentWeather> items = new CopyOnWriteArrayList<CurrentWeather>();
+        private final CountDownLatch ended = new CountDownLatch(1);
+
+        volatile WeatherPublisher.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        private Recorder(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        public void onSubscribe(WeatherPublisher.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        public void onNext(CurrentWeather item) {
+            items.add(item);
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+            ended.countDown();
+        }
+
+        public void onComplete() {
+            completed = true;
+            ended.countDown();
+        }
+    }
+}